@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.service.ExportService;
+import ru.yandex.practicum.filmorate.storage.export.ExportFormat;
+import ru.yandex.practicum.filmorate.storage.export.ExportTable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full gzip-compressed table dumps. Besides the dump rate, JMH reports {@code rows} and {@code bytes}
+ * per second, which is the figure to compare between formats and tables.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Dump {
+        @Param({"like", "film"})
+        public String table;
+
+        @Param({"csv", "ndjson"})
+        public String format;
+
+        ExportService exportService;
+        ExportTable exportTable;
+        ExportFormat exportFormat;
+
+        @Setup(Level.Trial)
+        public void setup(SeededApplication app) {
+            exportService = app.bean(ExportService.class);
+            exportTable = exportService.findTable(table);
+            exportFormat = exportService.findFormat(format);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Written {
+        public long rows;
+        public long bytes;
+    }
+
+    @Benchmark
+    public void export(Dump dump, Written written) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+        written.rows += dump.exportService.export(dump.exportTable, dump.exportFormat, gzip);
+        gzip.finish();
+        written.bytes += out.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmBenchmark {
+
+    @Benchmark
+    public Collection<Film> getTop(SeededApplication app) {
+        return app.filmRepository.getTop(10, null, null);
+    }
+
+    @Benchmark
+    public Collection<Film> getTopByGenreAndYear(SeededApplication app) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return app.filmRepository.getTop(10, 1 + random.nextLong(6), 1950 + random.nextInt(70));
+    }
+
+    @Benchmark
+    public Collection<Film> findAll(SeededApplication app) {
+        return app.filmRepository.findAll();
+    }
+
+    @Benchmark
+    public Collection<Film> findPage(SeededApplication app) {
+        long after = ThreadLocalRandom.current().nextLong(app.films);
+        return app.filmRepository.findPage(after, 100);
+    }
+
+    @Benchmark
+    public Collection<Film> search(SeededApplication app) {
+        long filmId = 1 + ThreadLocalRandom.current().nextLong(app.films);
+        return app.filmService.search("descripton of film " + filmId, List.of("title", "description"), 10);
+    }
+
+    @Benchmark
+    public Film findById(SeededApplication app) {
+        long filmId = 1 + ThreadLocalRandom.current().nextLong(app.films);
+        return app.filmService.findById(filmId);
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full film hydration with genres joined and regrouped in Java ({@code aggregateGenres=false})
+ * versus one row per film with genres collected by {@code ARRAY_AGG}. Run with {@code -prof gc}
+ * to compare {@code gc.alloc.rate.norm}, the bytes allocated per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class FilmHydrationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Hydration extends SeededApplication {
+        @Param({"false", "true"})
+        public boolean aggregateGenres;
+
+        @Override
+        protected SpringApplicationBuilder configure(SpringApplicationBuilder builder, List<String> args) {
+            args.add("--filmorate.films.aggregate-genres=" + aggregateGenres);
+            return super.configure(builder, args);
+        }
+    }
+
+    @Benchmark
+    public Collection<Film> findAll(Hydration app) {
+        return app.filmRepository.findAll();
+    }
+
+    @Benchmark
+    public int streamAll(Hydration app) {
+        int[] genres = new int[1];
+        app.filmRepository.streamAll(0, film -> genres[0] += film.getGenres().size());
+        return genres[0];
+    }
+}
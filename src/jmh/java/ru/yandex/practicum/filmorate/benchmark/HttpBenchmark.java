@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load on the HTTP API from more concurrent clients than there are platform request
+ * threads. Compare {@code virtualThreads=false} and {@code true}: throughput in {@code thrpt} mode,
+ * p99 latency in the {@code sample} mode percentiles.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(200)
+public class HttpBenchmark {
+
+    @Benchmark
+    public String getFilm(SeededWebApplication app) throws IOException, InterruptedException {
+        long filmId = 1 + ThreadLocalRandom.current().nextLong(app.films);
+        return get(app, "/films/" + filmId);
+    }
+
+    @Benchmark
+    public String getPopular(SeededWebApplication app) throws IOException, InterruptedException {
+        return get(app, "/films/popular?count=10");
+    }
+
+    private static String get(SeededWebApplication app, String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = app.http.send(HttpRequest.newBuilder(app.uri(path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+}
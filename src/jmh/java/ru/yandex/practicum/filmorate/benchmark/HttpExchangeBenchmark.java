@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+import org.springframework.boot.actuate.web.exchanges.HttpExchangeRepository;
+import org.springframework.boot.actuate.web.exchanges.InMemoryHttpExchangeRepository;
+import org.springframework.boot.actuate.web.exchanges.Include;
+import org.springframework.boot.actuate.web.exchanges.RecordableHttpRequest;
+import org.springframework.boot.actuate.web.exchanges.RecordableHttpResponse;
+import ru.yandex.practicum.filmorate.actuator.RingBufferHttpExchangeRepository;
+
+import java.net.URI;
+import java.time.Clock;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording one exchange while many request threads record at once, for Spring's
+ * synchronized {@link InMemoryHttpExchangeRepository} and the lock-free ring buffer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class HttpExchangeBenchmark {
+    @Param({"in-memory", "ring-buffer"})
+    public String repositoryType;
+
+    private HttpExchangeRepository repository;
+    private HttpExchange exchange;
+
+    @Setup
+    public void setUp() {
+        repository = "in-memory".equals(repositoryType)
+                ? new InMemoryHttpExchangeRepository()
+                : new RingBufferHttpExchangeRepository(1024, 1024);
+        RecordableHttpRequest request = Mockito.mock(RecordableHttpRequest.class);
+        Mockito.when(request.getUri()).thenReturn(URI.create("http://localhost/films/1"));
+        Mockito.when(request.getMethod()).thenReturn("GET");
+        Mockito.when(request.getHeaders()).thenReturn(Map.of());
+        RecordableHttpResponse response = Mockito.mock(RecordableHttpResponse.class);
+        Mockito.when(response.getStatus()).thenReturn(200);
+        Mockito.when(response.getHeaders()).thenReturn(Map.of());
+        exchange = HttpExchange.start(Clock.systemUTC(), request)
+                .finish(Clock.systemUTC(), response, null, null, Set.of(Include.TIME_TAKEN));
+    }
+
+    @Benchmark
+    public void add() {
+        repository.add(exchange);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Like write path: every invocation removes a random like, if there is one, and puts it back,
+ * so the cost of a delete and an insert is measured regardless of the seeded likes.
+ * Each thread works on its own users so concurrent invocations never touch the same pair.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(LikeBenchmark.THREADS)
+public class LikeBenchmark {
+    static final int THREADS = 4;
+
+    @State(Scope.Thread)
+    public static class Slot {
+        private static final AtomicInteger NEXT = new AtomicInteger();
+        final int index = NEXT.getAndIncrement() % THREADS;
+    }
+
+    @Benchmark
+    public void likeAndUnlike(SeededApplication app, Slot slot) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = 1 + slot.index + (long) THREADS * random.nextLong(app.users / THREADS);
+        long filmId = 1 + random.nextLong(app.films);
+        app.filmService.removeLike(userId, filmId);
+        app.filmService.addLike(userId, filmId);
+    }
+}
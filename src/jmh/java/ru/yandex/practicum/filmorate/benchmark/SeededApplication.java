@@ -0,0 +1,153 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.RecommendationService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.recommendation.RecommendationRefresher;
+import ru.yandex.practicum.filmorate.storage.repository.FilmRepository;
+import ru.yandex.practicum.filmorate.storage.search.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.repository.LikeRepository;
+import ru.yandex.practicum.filmorate.storage.repository.UserRepository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Starts the application without the web layer on an in-memory H2 database and seeds it
+ * with {@code users} users, {@code films} films and the given number of likes and friends per user.
+ * Film popularity is skewed, so a few films collect most of the likes.
+ */
+@State(Scope.Benchmark)
+public class SeededApplication {
+    @Param("1000")
+    public int users;
+
+    @Param("1000")
+    public int films;
+
+    @Param("20")
+    public int likesPerUser;
+
+    @Param("20")
+    public int friendsPerUser;
+
+    public FilmRepository filmRepository;
+    public UserRepository userRepository;
+    public FilmService filmService;
+    public UserService userService;
+    public RecommendationService recommendationService;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--logging.level.root=WARN",
+                "--logging.level.org.zalando.logbook=WARN"));
+        context = configure(new SpringApplicationBuilder(FilmorateApplication.class), args)
+                .run(args.toArray(String[]::new));
+        seed(bean(JdbcTemplate.class), new Random(42));
+        reloadInMemoryState();
+        filmRepository = bean(FilmRepository.class);
+        userRepository = bean(UserRepository.class);
+        filmService = bean(FilmService.class);
+        userService = bean(UserService.class);
+        recommendationService = bean(RecommendationService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    protected SpringApplicationBuilder configure(SpringApplicationBuilder builder, List<String> args) {
+        return builder.web(WebApplicationType.NONE);
+    }
+
+    protected ConfigurableApplicationContext context() {
+        return context;
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public void reloadInMemoryState() {
+        bean(LikeRepository.class).loadLeaderboard();
+        bean(FilmRepository.class).loadLeaderboardFilters();
+        bean(UserRepository.class).loadFriendGraph();
+        bean(RecommendationRefresher.class).rebuild();
+        bean(FilmSearchIndex.class).rebuild();
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate, Random random) {
+        List<Object[]> userRows = new ArrayList<>(users);
+        for (long id = 1; id <= users; id++) {
+            userRows.add(new Object[]{id, "user" + id + "@example.com", "user" + id, "User " + id,
+                    Date.valueOf(LocalDate.of(1970, 1, 1).plusDays(id % 15000))});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO `user` (id, email, login, name, birthdate) VALUES (?, ?, ?, ?, ?);", userRows);
+
+        List<Object[]> filmRows = new ArrayList<>(films);
+        List<Object[]> filmGenreRows = new ArrayList<>();
+        for (long id = 1; id <= films; id++) {
+            filmRows.add(new Object[]{id, "Film " + id, "Description of film " + id,
+                    Date.valueOf(LocalDate.of(1950, 1, 1).plusDays(id % 25000)), 60 + id % 120, 1 + id % 5});
+            long genres = 1 + id % 3;
+            for (long genre = 0; genre < genres; genre++) {
+                filmGenreRows.add(new Object[]{id, 1 + (id + genre) % 6});
+            }
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO film (id, name, description, release_date, duration, mpa_rating_id)
+                VALUES (?, ?, ?, ?, ?, ?);
+                """, filmRows);
+        jdbcTemplate.batchUpdate("INSERT INTO film_genre (film_id, genre_id) VALUES (?, ?);", filmGenreRows);
+
+        List<Object[]> likeRows = new ArrayList<>();
+        List<Object[]> friendRows = new ArrayList<>();
+        for (long userId = 1; userId <= users; userId++) {
+            for (long filmId : pick(random, films, likesPerUser, true)) {
+                likeRows.add(new Object[]{userId, filmId});
+            }
+            for (long friendId : pick(random, users, friendsPerUser, false)) {
+                if (friendId != userId) {
+                    friendRows.add(new Object[]{userId, friendId});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO `like` (user_id, film_id) VALUES (?, ?);", likeRows);
+        jdbcTemplate.batchUpdate("INSERT INTO friend (user_id, friend_id) VALUES (?, ?);", friendRows);
+
+        jdbcTemplate.execute("ALTER TABLE `user` ALTER COLUMN id RESTART WITH " + (users + 1) + ";");
+        jdbcTemplate.execute("ALTER TABLE film ALTER COLUMN id RESTART WITH " + (films + 1) + ";");
+    }
+
+    private static Set<Long> pick(Random random, int bound, int count, boolean skewed) {
+        Set<Long> ids = new LinkedHashSet<>();
+        int target = Math.min(count, bound);
+        while (ids.size() < target) {
+            double r = random.nextDouble();
+            ids.add(1 + (long) (bound * (skewed ? r * r : r)));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * {@link SeededApplication} behind a real Tomcat on a random port, either on a bounded pool of
+ * platform request threads or on virtual threads. Every connection checkout is delayed by
+ * {@code dbLatencyMs} to emulate a slow database.
+ */
+@State(Scope.Benchmark)
+public class SeededWebApplication extends SeededApplication {
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param("50")
+    public int tomcatThreads;
+
+    @Param("5")
+    public int dbLatencyMs;
+
+    public final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Override
+    protected SpringApplicationBuilder configure(SpringApplicationBuilder builder, List<String> args) {
+        args.add("--server.port=0");
+        args.add("--spring.threads.virtual.enabled=" + virtualThreads);
+        args.add("--server.tomcat.threads.max=" + tomcatThreads);
+        return builder.web(WebApplicationType.SERVLET)
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(new SlowDataSource()));
+    }
+
+    public URI uri(String path) {
+        return URI.create("http://localhost:" + context().getEnvironment().getProperty("local.server.port") + path);
+    }
+
+    private class SlowDataSource implements BeanPostProcessor {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || dbLatencyMs == 0) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    Connection connection = super.getConnection();
+                    try {
+                        Thread.sleep(dbLatencyMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return connection;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserBenchmark {
+
+    @Benchmark
+    public Collection<User> getFriends(SeededApplication app) {
+        long userId = 1 + ThreadLocalRandom.current().nextLong(app.users);
+        return app.userRepository.getFriends(userId);
+    }
+
+    @Benchmark
+    public Collection<User> getCommonFriends(SeededApplication app) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = 1 + random.nextLong(app.users);
+        long otherUserId = 1 + random.nextLong(app.users);
+        return app.userRepository.getCommonFriends(userId, otherUserId);
+    }
+
+    @Benchmark
+    public Collection<User> getSuggestedFriends(SeededApplication app) {
+        long userId = 1 + ThreadLocalRandom.current().nextLong(app.users);
+        return app.userRepository.getSuggestedFriends(userId, 10);
+    }
+
+    @Benchmark
+    public Collection<Film> getRecommendations(SeededApplication app) {
+        long userId = 1 + ThreadLocalRandom.current().nextLong(app.users);
+        return app.recommendationService.getRecommendations(userId, 10);
+    }
+}
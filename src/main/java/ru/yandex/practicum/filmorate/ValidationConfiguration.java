@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate;
+
+import jakarta.validation.Path;
+import jakarta.validation.TraversableResolver;
+import org.springframework.boot.autoconfigure.validation.ValidationConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.annotation.ElementType;
+
+@Configuration
+public class ValidationConfiguration {
+
+    /**
+     * Hibernate Validator switches to a JPA-aware traversable resolver whenever JPA is on the classpath
+     * and asks it about every property it visits. The models here are plain objects read over JDBC,
+     * so there is nothing lazy to protect and the check is pure overhead on bulk imports.
+     */
+    @Bean
+    public ValidationConfigurationCustomizer traverseAllProperties() {
+        return configuration -> configuration.traversableResolver(new TraversableResolver() {
+            @Override
+            public boolean isReachable(Object traversableObject, Path.Node traversableProperty,
+                                       Class<?> rootBeanType, Path pathToTraversableObject,
+                                       ElementType elementType) {
+                return true;
+            }
+
+            @Override
+            public boolean isCascadable(Object traversableObject, Path.Node traversableProperty,
+                                        Class<?> rootBeanType, Path pathToTraversableObject,
+                                        ElementType elementType) {
+                return true;
+            }
+        });
+    }
+}
@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.actuator;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceCache;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceCacheRefresher;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "referencecache")
+@RequiredArgsConstructor
+public class ReferenceCacheEndpoint {
+    private final ReferenceCacheRefresher refresher;
+
+    @ReadOperation
+    public List<ReferenceCache.Stats> stats() {
+        return refresher.getCaches().stream()
+                .map(ReferenceCache::getStats)
+                .toList();
+    }
+
+    @WriteOperation
+    public List<ReferenceCache.Stats> refresh() {
+        refresher.refreshAll();
+        return stats();
+    }
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.actuator;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceCache;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceCacheRefresher;
+
+@Component
+@RequiredArgsConstructor
+public class ReferenceCacheMetrics implements MeterBinder {
+    private final ReferenceCacheRefresher refresher;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (ReferenceCache<?> cache : refresher.getCaches()) {
+            FunctionCounter.builder("filmorate.reference.cache.requests", cache, ReferenceCache::getHitCount)
+                    .tag("cache", cache.getName())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("filmorate.reference.cache.requests", cache, ReferenceCache::getMissCount)
+                    .tag("cache", cache.getName())
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("filmorate.reference.cache.size", cache, ReferenceCache::size)
+                    .tag("cache", cache.getName())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.actuator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+import org.springframework.boot.actuate.web.exchanges.HttpExchangeRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-capacity, lock-free replacement for {@code InMemoryHttpExchangeRepository}.
+ * <p>
+ * Writers claim a slot with a single {@code getAndIncrement} and overwrite the oldest exchange,
+ * so recording never blocks the request thread. Latencies are also kept per route, e.g.
+ * {@code /films/{id}}, in a window of the most recent {@code filmorate.http-exchanges.latency-window}
+ * requests; percentiles are computed only when read.
+ */
+@Component
+public class RingBufferHttpExchangeRepository implements HttpExchangeRepository {
+    static final String UNKNOWN_ROUTE = "UNKNOWN";
+
+    private final AtomicReferenceArray<HttpExchange> exchanges;
+    private final AtomicLong written = new AtomicLong();
+    private final int mask;
+    private final int latencyWindow;
+    private final Map<String, RouteWindow> routes = new ConcurrentHashMap<>();
+
+    public RingBufferHttpExchangeRepository(@Value("${filmorate.http-exchanges.capacity:1024}") int capacity,
+                                            @Value("${filmorate.http-exchanges.latency-window:1024}") int latencyWindow) {
+        int size = powerOfTwo(capacity);
+        this.exchanges = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.latencyWindow = powerOfTwo(latencyWindow);
+    }
+
+    @Override
+    public List<HttpExchange> findAll() {
+        long end = written.get();
+        long start = Math.max(0, end - exchanges.length());
+        List<HttpExchange> result = new ArrayList<>((int) (end - start));
+        // Сначала самые свежие, как в InMemoryHttpExchangeRepository
+        for (long i = end - 1; i >= start; i--) {
+            HttpExchange exchange = exchanges.get((int) (i & mask));
+            if (exchange != null) {
+                result.add(exchange);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void add(HttpExchange exchange) {
+        exchanges.lazySet((int) (written.getAndIncrement() & mask), exchange);
+        Duration timeTaken = exchange.getTimeTaken();
+        if (timeTaken != null) {
+            String route = currentRoute();
+            RouteWindow window = routes.get(route);
+            if (window == null) {
+                window = routes.computeIfAbsent(route, key -> new RouteWindow(latencyWindow));
+            }
+            window.record(timeTaken.toNanos());
+        }
+    }
+
+    public List<RouteLatency> getRouteLatencies() {
+        return routes.entrySet().stream()
+                .map(entry -> entry.getValue().summarize(entry.getKey()))
+                .sorted(Comparator.comparing(RouteLatency::route))
+                .toList();
+    }
+
+    // Фильтр записи работает внутри RequestContextFilter, так что шаблон маршрута ещё доступен
+    private static String currentRoute() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return UNKNOWN_ROUTE;
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        return pattern == null ? UNKNOWN_ROUTE : pattern.toString();
+    }
+
+    private static int powerOfTwo(int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + value);
+        }
+        return value == 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    public record RouteLatency(String route, long count, double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+
+    private static final class RouteWindow {
+        private final AtomicLongArray nanos;
+        private final AtomicLong count = new AtomicLong();
+        private final int mask;
+
+        RouteWindow(int size) {
+            this.nanos = new AtomicLongArray(size);
+            this.mask = size - 1;
+        }
+
+        void record(long timeNanos) {
+            nanos.lazySet((int) (count.getAndIncrement() & mask), timeNanos);
+        }
+
+        RouteLatency summarize(String route) {
+            long total = count.get();
+            int size = (int) Math.min(total, nanos.length());
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = nanos.get(i);
+            }
+            Arrays.sort(sorted);
+            return new RouteLatency(route, total, percentile(sorted, 0.50), percentile(sorted, 0.95),
+                    percentile(sorted, 0.99), size == 0 ? 0 : toMillis(sorted[size - 1]));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return toMillis(sorted[Math.max(index, 0)]);
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
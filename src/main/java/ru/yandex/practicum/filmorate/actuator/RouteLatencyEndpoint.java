@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.actuator;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "routelatency")
+@RequiredArgsConstructor
+public class RouteLatencyEndpoint {
+    private final RingBufferHttpExchangeRepository repository;
+
+    @ReadOperation
+    public List<RingBufferHttpExchangeRepository.RouteLatency> latencies() {
+        return repository.getRouteLatencies();
+    }
+}
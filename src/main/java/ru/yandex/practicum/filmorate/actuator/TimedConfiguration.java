@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.actuator;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.Function;
+
+/**
+ * Enables {@link io.micrometer.core.annotation.Timed} on repositories and services.
+ * Timers are tagged with the simple class name and method, e.g. {@code FilmRepository.findPage},
+ * which names the query behind each measurement.
+ */
+@Configuration(proxyBeanMethods = false)
+public class TimedConfiguration {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        Function<ProceedingJoinPoint, Iterable<Tag>> tags = joinPoint -> Tags.of(
+                "class", joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                "method", joinPoint.getSignature().getName());
+        return new TimedAspect(registry, tags);
+    }
+}
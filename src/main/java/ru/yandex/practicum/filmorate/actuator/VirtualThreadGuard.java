@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.actuator;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Guardrails for running requests on virtual threads.
+ * <p>
+ * A virtual thread that blocks inside a {@code synchronized} block, as JDBC drivers and pools
+ * still do, pins its carrier. Pinning longer than {@code filmorate.virtual-threads.pinned-threshold}
+ * is recorded from JFR into the {@code filmorate.virtual.threads.pinned} timer. Connection pools
+ * that together hold at least as many connections as there are carriers would let JDBC calls pin
+ * every carrier at once; in that case repository calls made on virtual threads are limited to one
+ * fewer than the number of carriers, and callers over the limit wait unmounted.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadGuard {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 5;
+
+    private final Duration threshold;
+    private final Timer pinned;
+    private final Semaphore jdbcPermits;
+    private final ThreadLocal<Boolean> holdsPermit = new ThreadLocal<>();
+    private RecordingStream recording;
+
+    public VirtualThreadGuard(List<HikariDataSource> pools, MeterRegistry registry,
+                              @Value("${filmorate.virtual-threads.pinned-threshold:PT0.02S}") Duration threshold) {
+        this.threshold = threshold;
+        this.pinned = Timer.builder("filmorate.virtual.threads.pinned")
+                .description("Time virtual threads spent pinned to their carrier")
+                .register(registry);
+        this.jdbcPermits = jdbcPermits(pools);
+        if (jdbcPermits != null) {
+            Gauge.builder("filmorate.virtual.threads.jdbc.waiting", jdbcPermits, Semaphore::getQueueLength)
+                    .description("Virtual threads waiting for a free carrier to run a repository call")
+                    .register(registry);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+        log.info("Virtual threads enabled, recording pinning longer than {}", threshold);
+    }
+
+    @PreDestroy
+    public void stop() {
+        recording.close();
+    }
+
+    @Around("within(@org.springframework.stereotype.Repository *)")
+    public Object limitJdbcCalls(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Вложенный вызов репозитория уже держит разрешение: повторный захват мог бы зависнуть
+        if (jdbcPermits == null || !Thread.currentThread().isVirtual() || holdsPermit.get() != null) {
+            return joinPoint.proceed();
+        }
+        jdbcPermits.acquire();
+        holdsPermit.set(Boolean.TRUE);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            holdsPermit.remove();
+            jdbcPermits.release();
+        }
+    }
+
+    private static Semaphore jdbcPermits(List<HikariDataSource> pools) {
+        int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                Runtime.getRuntime().availableProcessors());
+        int connections = pools.stream().mapToInt(HikariDataSource::getMaximumPoolSize).sum();
+        if (connections < carriers) {
+            return null;
+        }
+        int permits = Math.max(1, carriers - 1);
+        log.warn("Connection pools {} hold {} connections for {} virtual thread carriers: repository calls "
+                        + "on virtual threads are limited to {} at a time. Lower maximum-pool-size "
+                        + "or raise -Djdk.virtualThreadScheduler.parallelism to lift the limit",
+                pools.stream().map(HikariDataSource::getPoolName).toList(), connections, carriers, permits);
+        return new Semaphore(permits, true);
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        if (log.isDebugEnabled() && event.getStackTrace() != null) {
+            log.debug("Virtual thread pinned for {} at {}", event.getDuration(),
+                    event.getStackTrace().getFrames().stream()
+                            .limit(LOGGED_FRAMES)
+                            .map(RecordedFrame::toString)
+                            .collect(Collectors.joining(" <- ")));
+        }
+    }
+}
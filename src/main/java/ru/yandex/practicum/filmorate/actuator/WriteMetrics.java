@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.actuator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts idempotent writes by outcome, so repeated likes and friend requests show up as
+ * {@code outcome=noop} instead of disappearing.
+ */
+@Component
+@RequiredArgsConstructor
+public class WriteMetrics {
+    private final MeterRegistry meterRegistry;
+
+    public void record(String operation, boolean changed) {
+        meterRegistry.counter("filmorate.writes",
+                "operation", operation,
+                "outcome", changed ? "changed" : "noop").increment();
+    }
+}
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Reads a request body that is either a JSON array or NDJSON lazily, one item at a time. An item that
+ * cannot be mapped is reported by {@link Iterator#next()} and skipped; broken JSON syntax ends the stream.
+ */
+final class BatchItems {
+    private BatchItems() {
+    }
+
+    static <T> Iterator<T> of(ObjectMapper objectMapper, Class<T> type, InputStream body) throws IOException {
+        MappingIterator<T> items = objectMapper.readerFor(type).readValues(body);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return items.hasNextValue();
+                } catch (IOException e) {
+                    throw new ValidationException("malformed input, import stopped: " + e.getMessage());
+                }
+            }
+
+            @Override
+            public T next() {
+                try {
+                    return items.nextValue();
+                } catch (JsonMappingException e) {
+                    throw new ValidationException("malformed item: " + e.getOriginalMessage());
+                } catch (IOException e) {
+                    throw new ValidationException("malformed input: " + e.getMessage());
+                }
+            }
+        };
+    }
+}
@@ -1,14 +1,24 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.PageParams;
+import ru.yandex.practicum.filmorate.storage.ResourceVersion;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
+import java.util.List;
 
 @RestController()
 @RequestMapping("/films")
@@ -16,15 +26,31 @@ import java.util.Collection;
 @Slf4j
 public class FilmController {
     private final FilmService filmService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/{id}")
-    public Film findFilm(@PathVariable("id") long filmId) {
+    public Film findFilm(@PathVariable("id") long filmId, WebRequest request) {
+        // Версию берём до чтения фильма: при гонке с обновлением клиент получит старый ETag, а не устаревшее тело
+        ResourceVersion version = filmService.getVersion(filmId);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
         return filmService.findById(filmId);
     }
 
     @GetMapping
-    public Collection<Film> findAll() {
-        return filmService.findAll();
+    public Collection<Film> findAll(@RequestParam(name = "limit", required = false) Integer limit,
+                                    @RequestParam(name = "after", defaultValue = "0") long after) {
+        if (limit == null) {
+            return filmService.findAll();
+        }
+        return filmService.findPage(after, limit);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAll(@RequestParam(name = "after", defaultValue = "0") long after) {
+        PageParams.validateAfter(after);
+        return NdjsonStreams.<Film>of(objectMapper, consumer -> filmService.streamAll(after, consumer));
     }
 
     @PostMapping
@@ -33,14 +59,28 @@ public class FilmController {
         return filmService.create(film);
     }
 
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BatchResult createBatch(InputStream body) throws IOException {
+        return filmService.createAll(BatchItems.of(objectMapper, Film.class, body));
+    }
+
     @PutMapping
     public Film update(@Valid @RequestBody Film newFilm) {
         return filmService.update(newFilm);
     }
 
+    @GetMapping("/search")
+    public Collection<Film> search(@RequestParam("query") String query,
+                                   @RequestParam(name = "by", defaultValue = "title,description") List<String> by,
+                                   @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return filmService.search(query, by, limit);
+    }
+
     @GetMapping("/popular")
-    public Collection<Film> popular(@RequestParam(defaultValue = "10", name = "count") int count) {
-        return filmService.getTop(count);
+    public Collection<Film> popular(@RequestParam(defaultValue = "10", name = "count") int count,
+                                    @RequestParam(name = "genreId", required = false) Long genreId,
+                                    @RequestParam(name = "year", required = false) Integer year) {
+        return filmService.getTop(count, genreId, year);
     }
 
     @PutMapping("/{userId}/like/{id}")
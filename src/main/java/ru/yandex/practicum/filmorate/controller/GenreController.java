@@ -6,8 +6,10 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.service.GenreService;
+import ru.yandex.practicum.filmorate.storage.ResourceVersion;
 
 import java.util.Collection;
 
@@ -19,12 +21,21 @@ public class GenreController {
     private final GenreService genreService;
 
     @GetMapping
-    public Collection<Genre> findAll() {
+    public Collection<Genre> findAll(WebRequest request) {
+        ResourceVersion version = genreService.getVersion();
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
         return genreService.findAll();
     }
 
     @GetMapping("/{id}")
-    public Genre findById(@PathVariable("id") long id) {
-        return genreService.findById(id);
+    public Genre findById(@PathVariable("id") long id, WebRequest request) {
+        ResourceVersion version = genreService.getVersion().forEntry(id);
+        Genre genre = genreService.findById(id);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        return genre;
     }
 }
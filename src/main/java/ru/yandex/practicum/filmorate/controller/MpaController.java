@@ -4,9 +4,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.service.MpaService;
+import ru.yandex.practicum.filmorate.storage.ResourceVersion;
 
 import java.util.Collection;
 import java.util.Map;
@@ -19,13 +21,22 @@ public class MpaController {
     private final MpaService mpaService;
 
     @GetMapping
-    public Collection<Mpa> findAll() {
+    public Collection<Mpa> findAll(WebRequest request) {
+        ResourceVersion version = mpaService.getVersion();
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
         return mpaService.findAll();
     }
 
     @GetMapping("/{id}")
-    public Mpa findMpa(@PathVariable("id") long mpaId) {
-        return mpaService.findById(mpaId);
+    public Mpa findMpa(@PathVariable("id") long mpaId, WebRequest request) {
+        ResourceVersion version = mpaService.getVersion().forEntry(mpaId);
+        Mpa mpa = mpaService.findById(mpaId);
+        if (request.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
+        return mpa;
     }
 
     @ExceptionHandler
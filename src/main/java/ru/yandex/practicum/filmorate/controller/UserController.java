@@ -1,14 +1,24 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.PageParams;
+import ru.yandex.practicum.filmorate.service.RecommendationService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping("/users")
@@ -16,6 +26,8 @@ import java.util.Collection;
 @Slf4j
 public class UserController {
     private final UserService userService;
+    private final RecommendationService recommendationService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/{id}")
     public User findUser(@PathVariable("id") long userId) {
@@ -23,8 +35,18 @@ public class UserController {
     }
 
     @GetMapping
-    public Collection<User> findAll() {
-        return userService.findAll();
+    public Collection<User> findAll(@RequestParam(name = "limit", required = false) Integer limit,
+                                    @RequestParam(name = "after", defaultValue = "0") long after) {
+        if (limit == null) {
+            return userService.findAll();
+        }
+        return userService.findPage(after, limit);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamAll(@RequestParam(name = "after", defaultValue = "0") long after) {
+        PageParams.validateAfter(after);
+        return NdjsonStreams.<User>of(objectMapper, consumer -> userService.streamAll(after, consumer));
     }
 
     @PostMapping
@@ -33,6 +55,11 @@ public class UserController {
         return userService.create(user);
     }
 
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BatchResult createBatch(InputStream body) throws IOException {
+        return userService.createAll(BatchItems.of(objectMapper, User.class, body));
+    }
+
     @PutMapping
     public User update(@Valid @RequestBody User newUser) {
         return userService.update(newUser);
@@ -59,5 +86,16 @@ public class UserController {
         return userService.getCommonFriends(userId, otherId);
     }
 
+    @GetMapping("/{id}/friends/suggested")
+    public List<User> suggestedFriends(@PathVariable("id") long userId,
+                                       @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return userService.getSuggestedFriends(userId, limit);
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public List<Film> recommendations(@PathVariable("id") long userId,
+                                      @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return recommendationService.getRecommendations(userId, limit);
+    }
 
 }
\ No newline at end of file
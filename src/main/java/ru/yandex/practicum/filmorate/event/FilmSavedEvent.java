@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.event;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Published by film storages after a film is created or updated.
+ */
+public record FilmSavedEvent(long filmId, String name, String description, Integer year, Set<Long> genreIds) {
+
+    public static FilmSavedEvent of(Film film) {
+        Integer year = film.getReleaseDate() == null ? null : film.getReleaseDate().getYear();
+        Set<Long> genreIds = film.getGenres() == null ? Set.of() : film.getGenres().stream()
+                .map(Genre::getId)
+                .collect(Collectors.toUnmodifiableSet());
+        return new FilmSavedEvent(film.getId(), film.getName(), film.getDescription(), year, genreIds);
+    }
+}
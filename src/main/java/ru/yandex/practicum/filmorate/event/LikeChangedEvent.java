@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.event;
+
+/**
+ * Published by like storages once a like is accepted ({@code liked = true}) or removed.
+ */
+public record LikeChangedEvent(long userId, long filmId, boolean liked) {
+}
@@ -0,0 +1,206 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logbook sink that keeps formatting and log I/O off the request thread.
+ * <p>
+ * On the request thread the exchange is only sampled and copied into a compact entry with bodies
+ * truncated to {@code max-body-size}; entries go to a bounded queue and are formatted as JSON lines by
+ * a background writer. Errors (status 400 and above) are always kept, other responses are sampled by
+ * the first matching {@code sample-rates} pattern or {@code sample-rate}. When the queue is full the
+ * entry is dropped and counted instead of blocking the request.
+ * <p>
+ * Entries are written at INFO to the {@code org.zalando.logbook.Logbook} logger, so raising that logger
+ * above INFO switches Logbook off entirely, including body buffering.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.http-log.async", havingValue = "true", matchIfMissing = true)
+@Slf4j(topic = "org.zalando.logbook.Logbook")
+public class AsyncLogbookSink implements Sink {
+    private static final String METRIC = "filmorate.http.log.entries";
+
+    private final ObjectMapper objectMapper;
+    private final int maxBodySize;
+    private final double defaultSampleRate;
+    private final List<Map.Entry<String, Double>> sampleRates;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final BlockingQueue<Entry> queue;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter sampledOut;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AsyncLogbookSink(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            @Value("${filmorate.http-log.capacity:10000}") int capacity,
+                            @Value("${filmorate.http-log.max-body-size:2048}") int maxBodySize,
+                            @Value("${filmorate.http-log.sample-rate:1.0}") double defaultSampleRate,
+                            @Value("${filmorate.http-log.sample-rates:}") String sampleRates) {
+        this.objectMapper = objectMapper;
+        this.maxBodySize = maxBodySize;
+        this.defaultSampleRate = defaultSampleRate;
+        this.sampleRates = parseSampleRates(sampleRates);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.written = meterRegistry.counter(METRIC, "outcome", "written");
+        this.dropped = meterRegistry.counter(METRIC, "outcome", "dropped");
+        this.sampledOut = meterRegistry.counter(METRIC, "outcome", "sampled_out");
+        Gauge.builder("filmorate.http.log.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        this.writer = new Thread(this::drain, "http-log-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+        log.debug("Async HTTP log sink started: sample rate {}, overrides {}", defaultSampleRate, sampleRates);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        List<Entry> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        rest.forEach(this::writeEntry);
+    }
+
+    @Override
+    public boolean isActive() {
+        return log.isInfoEnabled();
+    }
+
+    @Override
+    public void write(Precorrelation precorrelation, HttpRequest request) {
+        // Запрос пишем вместе с ответом: решение о сэмплировании зависит от статуса
+    }
+
+    @Override
+    public void write(Correlation correlation, HttpRequest request, HttpResponse response) throws IOException {
+        int status = response.getStatus();
+        if (status < 400 && !sampled(request.getPath())) {
+            sampledOut.increment();
+            return;
+        }
+        byte[] requestBody = request.getBody();
+        byte[] responseBody = response.getBody();
+        Entry entry = new Entry(correlation.getId(), correlation.getStart(), correlation.getDuration().toMillis(),
+                request.getMethod(), request.getRequestUri(), status,
+                truncate(requestBody), requestBody.length, truncate(responseBody), responseBody.length);
+        if (!queue.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    private boolean sampled(String path) {
+        double rate = defaultSampleRate;
+        for (Map.Entry<String, Double> override : sampleRates) {
+            if (pathMatcher.match(override.getKey(), path)) {
+                rate = override.getValue();
+                break;
+            }
+        }
+        return rate >= 1.0 || rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private byte[] truncate(byte[] body) {
+        return body.length <= maxBodySize ? body : Arrays.copyOf(body, maxBodySize);
+    }
+
+    private void drain() {
+        List<Entry> batch = new ArrayList<>();
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch);
+            batch.forEach(this::writeEntry);
+            batch.clear();
+        }
+    }
+
+    private void writeEntry(Entry entry) {
+        try {
+            log.info(objectMapper.writeValueAsString(entry.toMap()));
+            written.increment();
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to write HTTP log entry {}", entry.id(), e);
+        }
+    }
+
+    private static List<Map.Entry<String, Double>> parseSampleRates(String value) {
+        List<Map.Entry<String, Double>> rates = new ArrayList<>();
+        for (String pair : value.split(",")) {
+            if (pair.isBlank()) {
+                continue;
+            }
+            int separator = pair.lastIndexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Sample rate must look like /path/**=0.1: " + pair);
+            }
+            rates.add(Map.entry(pair.substring(0, separator).trim(),
+                    Double.parseDouble(pair.substring(separator + 1).trim())));
+        }
+        return List.copyOf(rates);
+    }
+
+    private record Entry(String id, Instant start, long durationMs, String method, String uri, int status,
+                         byte[] requestBody, int requestBodySize, byte[] responseBody, int responseBodySize) {
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", id);
+            map.put("time", start.toString());
+            map.put("duration", durationMs);
+            map.put("method", method);
+            map.put("uri", uri);
+            map.put("status", status);
+            putBody(map, "request", requestBody, requestBodySize);
+            putBody(map, "response", responseBody, responseBodySize);
+            return map;
+        }
+
+        private static void putBody(Map<String, Object> map, String name, byte[] body, int size) {
+            if (size == 0) {
+                return;
+            }
+            map.put(name, new String(body, StandardCharsets.UTF_8));
+            if (body.length < size) {
+                map.put(name + "Size", size);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.zalando.logbook.HttpRequest;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Keeps Logbook away from streamed exchanges. While a request is logged, Logbook copies the whole
+ * request body and tees the whole response into memory before the sink decides to sample it, which
+ * would undo NDJSON streaming. Excluded requests are never buffered.
+ * <p>
+ * Path-based exclusions, such as the batch imports, are set with {@code logbook.predicate.exclude}
+ * and applied on top of this condition.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LogbookConfiguration {
+
+    @Bean
+    public Predicate<HttpRequest> requestCondition() {
+        return request -> !isNdjson(request, "Accept") && !isNdjson(request, "Content-Type");
+    }
+
+    private static boolean isNdjson(HttpRequest request, String header) {
+        List<String> values = request.getHeaders().get(header);
+        return values != null && values.stream().anyMatch(value -> value.contains(MediaType.APPLICATION_NDJSON_VALUE));
+    }
+}
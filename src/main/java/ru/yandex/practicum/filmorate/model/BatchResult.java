@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: ids of the created items in input order and the items that were rejected.
+ */
+public record BatchResult(int received, int created, List<Long> ids, List<ItemError> errors) {
+
+    public record ItemError(int index, String message) {
+    }
+}
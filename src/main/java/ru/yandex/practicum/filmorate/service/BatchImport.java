@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Validates items one by one and writes the valid ones in chunks, so a stream of any length is
+ * imported with bounded memory. An item that fails validation is reported and skipped; a chunk
+ * rejected by the database is reported item by item.
+ */
+@Slf4j
+final class BatchImport<T> {
+    static final int CHUNK_SIZE = 1000;
+
+    private final Validator validator;
+    private final Function<T, String> check;
+    private final UnaryOperator<List<T>> writer;
+    private final List<Long> ids = new ArrayList<>();
+    private final List<BatchResult.ItemError> errors = new ArrayList<>();
+    private final List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+    private final List<Integer> chunkIndexes = new ArrayList<>(CHUNK_SIZE);
+    private final Function<T, Long> idExtractor;
+
+    BatchImport(Validator validator, Function<T, String> check, UnaryOperator<List<T>> writer,
+                Function<T, Long> idExtractor) {
+        this.validator = validator;
+        this.check = check;
+        this.writer = writer;
+        this.idExtractor = idExtractor;
+    }
+
+    BatchResult run(Iterator<T> items) {
+        int index = 0;
+        while (true) {
+            T item;
+            try {
+                if (!items.hasNext()) {
+                    break;
+                }
+            } catch (ValidationException e) {
+                // Сломан сам поток: дальше читать нечего, но уже записанное остаётся
+                errors.add(new BatchResult.ItemError(index, e.getMessage()));
+                break;
+            }
+            try {
+                item = items.next();
+            } catch (ValidationException e) {
+                errors.add(new BatchResult.ItemError(index++, e.getMessage()));
+                continue;
+            }
+            String error = validate(item);
+            if (error != null) {
+                errors.add(new BatchResult.ItemError(index++, error));
+                continue;
+            }
+            chunk.add(item);
+            chunkIndexes.add(index++);
+            if (chunk.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+        flush();
+        errors.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        return new BatchResult(index, ids.size(), List.copyOf(ids), List.copyOf(errors));
+    }
+
+    private String validate(T item) {
+        if (item == null) {
+            return "item cannot be null";
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        return check.apply(item);
+    }
+
+    private void flush() {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            writer.apply(chunk).forEach(item -> ids.add(idExtractor.apply(item)));
+        } catch (DataAccessException e) {
+            log.warn("Batch of {} items starting at index {} rejected", chunk.size(), chunkIndexes.getFirst(), e);
+            String message = "rejected by storage: " + e.getMostSpecificCause().getMessage();
+            chunkIndexes.forEach(i -> errors.add(new BatchResult.ItemError(i, message)));
+        }
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.storage.export.ExportFormat;
+import ru.yandex.practicum.filmorate.storage.export.ExportTable;
+import ru.yandex.practicum.filmorate.storage.repository.ExportRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+    private final ExportRepository exportRepository;
+
+    public ExportTable findTable(String name) {
+        return ExportTable.of(name).orElseThrow(() -> new ValidationException("table must be one of "
+                + Arrays.stream(ExportTable.values()).map(ExportTable::fileName).collect(Collectors.joining(", "))));
+    }
+
+    public ExportFormat findFormat(String name) {
+        return ExportFormat.of(name).orElseThrow(() -> new ValidationException("format must be csv or ndjson"));
+    }
+
+    /**
+     * Writes the whole table to {@code out} and returns the number of rows written. The stream is
+     * flushed but not closed.
+     */
+    public long export(ExportTable table, ExportFormat format, OutputStream out) throws IOException {
+        ExportFormat.RowWriter writer = format.open(out, table.getColumns());
+        long[] rows = new long[1];
+        try {
+            exportRepository.export(table, rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        log.info("Exported {} rows of {} as {}", rows[0], table.fileName(), format.fileExtension());
+        return rows[0];
+    }
+}
@@ -1,59 +1,151 @@
 package ru.yandex.practicum.filmorate.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.actuator.WriteMetrics;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Mpa;
-import ru.yandex.practicum.filmorate.storage.repository.FilmRepository;
-import ru.yandex.practicum.filmorate.storage.repository.LikeRepository;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.FilmVersions;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.ResourceVersion;
+import ru.yandex.practicum.filmorate.storage.replica.ReplicaReads;
+import ru.yandex.practicum.filmorate.storage.search.FilmSearchIndex;
 
 import java.util.Collection;
-
-import static java.util.stream.Collectors.toSet;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "filmorate.service", histogram = true)
 @RequiredArgsConstructor
 public class FilmService {
-    private final FilmRepository filmRepository;
-    private final LikeRepository likeRepository;
+    public static final int MAX_SEARCH_RESULTS = 100;
+
+    private final FilmStorage filmStorage;
+    private final LikeStorage likeStorage;
     private final MpaService mpaService;
     private final GenreService genreService;
+    private final FilmSearchIndex searchIndex;
+    private final FilmVersions filmVersions;
+    private final Validator validator;
+    private final WriteMetrics writeMetrics;
+    private final ReplicaReads replicaReads;
 
     public Film findById(long filmId) {
-        var film = filmRepository.findById(filmId);
-        film.setMpa(mpaService.findById(film.getMpa().getId()));
-        film.setGenres(genreService.findByFilmId(filmId));
-        return film;
+        // Тело помечается ETag из FilmVersions, которые сдвигаются сразу после записи в основную БД;
+        // с отстающей реплики клиент получил бы старое тело с новым ETag и кэшировал его навсегда
+        return filmStorage.findById(filmId);
+    }
+
+    public ResourceVersion getVersion(long filmId) {
+        // Счётчики есть и у несуществующих фильмов: без проверки клиент с валидатором получил бы 304 вместо 404
+        if (!filmStorage.exists(filmId)) {
+            throw new NotFoundException("Film with id " + filmId + " not found");
+        }
+        // В теле фильма есть названия жанров и рейтинга, поэтому тег меняется и при обновлении справочников
+        return filmVersions.get(filmId).with(genreService.getVersion()).with(mpaService.getVersion());
     }
 
     public Collection<Film> findAll() {
-        return filmRepository.findAll2();
+        return replicaReads.read(filmStorage::findAll);
+    }
+
+    public Collection<Film> findPage(long afterId, int limit) {
+        PageParams.validate(afterId, limit);
+        return replicaReads.read(() -> filmStorage.findPage(afterId, limit));
+    }
+
+    public void streamAll(long afterId, Consumer<Film> consumer) {
+        replicaReads.readStream(() -> filmStorage.streamAll(afterId, consumer));
     }
 
     public Film create(Film film) {
         validateMpa(film.getMpa());
         validateGenres(film.getGenres());
-        return filmRepository.create(film);
+        return filmStorage.create(film);
+    }
+
+    public BatchResult createAll(Iterator<Film> films) {
+        // Справочники маленькие: один снимок на весь импорт вместо поиска на каждый фильм
+        Set<Long> mpaIds = mpaService.findAll().stream().map(Mpa::getId).collect(Collectors.toSet());
+        Set<Long> genreIds = genreService.findAll().stream().map(Genre::getId).collect(Collectors.toSet());
+        return new BatchImport<>(validator, film -> checkReferences(film, mpaIds, genreIds),
+                filmStorage::createAll, Film::getId).run(films);
+    }
+
+    private static String checkReferences(Film film, Set<Long> mpaIds, Set<Long> genreIds) {
+        if (!mpaIds.contains(film.getMpa().getId())) {
+            return "Mpa with id " + film.getMpa().getId() + " not found";
+        }
+        for (Genre genre : film.getGenres()) {
+            if (!genreIds.contains(genre.getId())) {
+                return "Genre with id " + genre.getId() + " not found";
+            }
+        }
+        return null;
     }
 
     public Film update(Film newFilm) {
-        return filmRepository.update(newFilm);
+        validateMpa(newFilm.getMpa());
+        validateGenres(newFilm.getGenres());
+        return filmStorage.update(newFilm);
     }
 
     public void addLike(Long filmId, Long userId) {
         validateLikeParams(filmId, userId);
-        likeRepository.addLike(filmId, userId);
+        // Хранилище принимает (userId, filmId): по контракту контроллера filmId здесь - id пользователя
+        boolean changed = likeStorage.addLike(filmId, userId);
+        if (changed) {
+            replicaReads.wrote(filmId);
+        }
+        writeMetrics.record("like.add", changed);
     }
 
     public void removeLike(Long filmId, Long userId) {
         validateLikeParams(filmId, userId);
-        likeRepository.removeLike(filmId, userId);
+        boolean changed = likeStorage.removeLike(filmId, userId);
+        if (changed) {
+            replicaReads.wrote(filmId);
+        }
+        writeMetrics.record("like.remove", changed);
     }
 
-    public Collection<Film> getTop(int count) {
-        return filmRepository.getTop(count);
+    public Collection<Film> getTop(int count, Long genreId, Integer year) {
+        if (genreId != null && !genreService.exists(genreId)) {
+            throw new NotFoundException("Genre with id " + genreId + " not found");
+        }
+        return replicaReads.read(() -> filmStorage.getTop(count, genreId, year));
+    }
+
+    public List<Film> search(String query, Collection<String> by, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("query cannot be empty");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new ValidationException("limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        Set<FilmSearchIndex.Field> fields = EnumSet.noneOf(FilmSearchIndex.Field.class);
+        for (String field : by) {
+            switch (field.trim().toLowerCase(Locale.ROOT)) {
+                case "title" -> fields.add(FilmSearchIndex.Field.TITLE);
+                case "description" -> fields.add(FilmSearchIndex.Field.DESCRIPTION);
+                default -> throw new ValidationException("by must be title and/or description");
+            }
+        }
+        List<Long> ids = searchIndex.search(query, fields, limit);
+        return replicaReads.read(() -> filmStorage.findByIds(ids));
     }
 
     public void validateLikeParams(Long filmId, Long userId) {
@@ -71,9 +163,8 @@ public class FilmService {
     }
 
     public void validateGenres(Collection<Genre> genres) {
-        Collection<Long> allGenreIds = genreService.findAll().stream().map(Genre::getId).collect(toSet());
         genres.forEach(x -> {
-            if (!allGenreIds.contains(x.getId()))
+            if (!genreService.exists(x.getId()))
                 throw new NotFoundException("Genre not found");
         });
     }
@@ -5,11 +5,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.ResourceVersion;
 import ru.yandex.practicum.filmorate.storage.repository.GenreRepository;
 
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
 
 @Slf4j
 @Service
@@ -30,7 +29,11 @@ public class GenreService {
         return genre;
     }
 
-    public Set<Genre> findByFilmId(long filmId) {
-        return new HashSet<>(genreRepository.findByFilmId(filmId));
+    public ResourceVersion getVersion() {
+        return genreRepository.getCache().getResourceVersion();
+    }
+
+    public boolean exists(long id) {
+        return genreRepository.findById(id) != null;
     }
 }
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.ResourceVersion;
 import ru.yandex.practicum.filmorate.storage.repository.MpaRepository;
 
 import java.util.Collection;
@@ -28,7 +29,11 @@ public class MpaService {
         return mpa;
     }
 
+    public ResourceVersion getVersion() {
+        return mpaRepository.getCache().getResourceVersion();
+    }
+
     public boolean exists(long mpaId) {
-        return findById(mpaId) != null;
+        return mpaRepository.findById(mpaId) != null;
     }
 }
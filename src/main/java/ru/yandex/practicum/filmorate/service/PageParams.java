@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+/**
+ * Checks of keyset pagination parameters shared by the film and user listings.
+ */
+public final class PageParams {
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private PageParams() {
+    }
+
+    public static void validate(long afterId, int limit) {
+        validateAfter(afterId);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Streams have no limit; the cursor is checked before the response is committed.
+     */
+    public static void validateAfter(long afterId) {
+        if (afterId < 0) {
+            throw new ValidationException("after cannot be negative");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.recommendation.FilmSimilarityIndex;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class RecommendationService {
+    public static final int MAX_RECOMMENDATIONS = 100;
+
+    private final FilmSimilarityIndex similarityIndex;
+    private final UserStorage userStorage;
+    private final FilmStorage filmStorage;
+
+    public List<Film> getRecommendations(long userId, int limit) {
+        if (limit < 1 || limit > MAX_RECOMMENDATIONS)
+            throw new ValidationException("limit must be between 1 and " + MAX_RECOMMENDATIONS);
+        if (userStorage.findById(userId) == null)
+            throw new NotFoundException(String.format("User with id '%s' not found", userId));
+
+        long[] filmIds = similarityIndex.recommend(userId, limit);
+        return filmStorage.findByIds(Arrays.stream(filmIds).boxed().toList());
+    }
+}
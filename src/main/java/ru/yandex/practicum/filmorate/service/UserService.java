@@ -1,33 +1,65 @@
 package ru.yandex.practicum.filmorate.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.actuator.WriteMetrics;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.User;
-import ru.yandex.practicum.filmorate.storage.repository.UserRepository;
+import ru.yandex.practicum.filmorate.storage.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.replica.ReplicaReads;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
 
 @Service
+@Timed(value = "filmorate.service", histogram = true)
 @RequiredArgsConstructor
 public class UserService {
-    private final UserRepository userRepository;
+    private final UserStorage userStorage;
+    private final Validator validator;
+    private final WriteMetrics writeMetrics;
+    private final ReplicaReads replicaReads;
 
     public User findById(long userId) {
-        return userRepository.findById(userId);
+        return replicaReads.readFor(userId, () -> userStorage.findById(userId));
     }
 
     public Collection<User> findAll() {
-        return userRepository.findAll();
+        return replicaReads.read(userStorage::findAll);
+    }
+
+    public Collection<User> findPage(long afterId, int limit) {
+        PageParams.validate(afterId, limit);
+        return replicaReads.read(() -> userStorage.findPage(afterId, limit));
+    }
+
+    public void streamAll(long afterId, Consumer<User> consumer) {
+        replicaReads.readStream(() -> userStorage.streamAll(afterId, consumer));
     }
 
     public User create(final User user) {
-        return userRepository.create(user);
+        User created = userStorage.create(user);
+        replicaReads.wrote(created.getId());
+        return created;
+    }
+
+    public BatchResult createAll(Iterator<User> users) {
+        // Колонка email обязательна, а @Email пропускает null: отсекаем до записи, чтобы не терять весь пакет
+        return new BatchImport<>(validator, user -> user.getEmail() == null ? "email: cannot be null" : null,
+                userStorage::createAll, User::getId).run(users);
     }
 
     public User update(User newUser) {
-        return userRepository.update(newUser);
+        User updated = userStorage.update(newUser);
+        replicaReads.wrote(updated.getId());
+        return updated;
     }
 
     public void addFriend(Long userId, Long friendUserId) {
@@ -36,11 +68,11 @@ public class UserService {
         if (userId.equals(friendUserId))
             throw new ValidationException("User cannot be a friend of himself");
 
-        User user = userRepository.findById(userId);
-        User friendUser = userRepository.findById(friendUserId);
-        if (user == null || friendUser == null)
-            throw new NotFoundException("user cannot be null");
-        userRepository.addFriend(userId, friendUserId);
+        boolean changed = userStorage.addFriend(userId, friendUserId);
+        if (changed) {
+            replicaReads.wrote(userId);
+        }
+        writeMetrics.record("friend.add", changed);
     }
 
     public void removeFriend(Long userId, Long friendUserId) {
@@ -48,17 +80,17 @@ public class UserService {
             throw new NotFoundException("userId or friendUserId cannot be null");
         if (userId.equals(friendUserId))
             throw new NotFoundException("User can't remove himself from friends");
-        if (!exists(userId) || !exists(friendUserId))
-            throw new NotFoundException("user not found");
-        userRepository.removeFriend(userId, friendUserId);
+        boolean changed = userStorage.removeFriend(userId, friendUserId);
+        if (changed) {
+            replicaReads.wrote(userId);
+        }
+        writeMetrics.record("friend.remove", changed);
     }
 
     public Collection<User> getFriends(Long userId) {
         if (userId == null)
             throw new ValidationException("userId cannot be null");
-        if (!exists(userId))
-            throw new NotFoundException("user not found");
-        return userRepository.getFriends(userId);
+        return replicaReads.readFor(userId, () -> userStorage.getFriends(userId));
     }
 
     public Collection<User> getCommonFriends(Long userId, Long otherUserId) {
@@ -67,7 +99,15 @@ public class UserService {
         if (userId.equals(otherUserId))
             throw new ValidationException("User cannot be a friend of himself");
 
-        return userRepository.getCommonFriends(userId, otherUserId);
+        return replicaReads.readFor(userId, () -> userStorage.getCommonFriends(userId, otherUserId));
+    }
+
+    public List<User> getSuggestedFriends(Long userId, int limit) {
+        if (userId == null)
+            throw new ValidationException("userId cannot be null");
+        if (limit < 1 || limit > FriendGraph.MAX_SUGGESTIONS)
+            throw new ValidationException("limit must be between 1 and " + FriendGraph.MAX_SUGGESTIONS);
+        return replicaReads.readFor(userId, () -> userStorage.getSuggestedFriends(userId, limit));
     }
 
     public boolean exists(long userId) {
@@ -0,0 +1,218 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Like counters per film, kept ordered by popularity. Films without likes are not ranked.
+ * <p>
+ * Besides the overall ranking there is one ranking per genre and per release year, so filtered
+ * top lists are read the same way as the unfiltered one. Genres and year of a film come from
+ * {@link FilmSavedEvent}; all changes of one film are serialized on its like counter.
+ */
+@Component
+@Slf4j
+public class FilmLeaderboard {
+    private static final Comparator<Entry> BY_LIKES_DESC = Comparator.comparingLong(Entry::likes).reversed()
+            .thenComparingLong(Entry::filmId);
+
+    private final Map<Long, Attributes> attributes = new ConcurrentHashMap<>();
+    private volatile Rankings rankings = new Rankings();
+    // Изменения счётчиков идут под read-lock параллельно, замена рейтингов при перестроении - под write-lock
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    /**
+     * Replaces all like counters at once; readers see either the old rankings or the new ones.
+     */
+    public void rebuild(Map<Long, Long> likesByFilm) {
+        Rankings rebuilt = new Rankings();
+        swapLock.writeLock().lock();
+        try {
+            likesByFilm.forEach(rebuilt::adjust);
+            rankings = rebuilt;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        log.info("Leaderboard rebuilt for {} films", rebuilt.likes.size());
+    }
+
+    @EventListener
+    public void onLikeChanged(LikeChangedEvent event) {
+        if (event.liked()) {
+            increment(event.filmId());
+        } else {
+            decrement(event.filmId());
+        }
+    }
+
+    @EventListener
+    public void onFilmSaved(FilmSavedEvent event) {
+        describe(event.filmId(), event.year(), event.genreIds());
+    }
+
+    public void increment(long filmId) {
+        adjust(filmId, 1);
+    }
+
+    public void decrement(long filmId) {
+        adjust(filmId, -1);
+    }
+
+    /**
+     * Sets the release year and genres a film is ranked under, moving it between rankings if it has likes.
+     */
+    public void describe(long filmId, Integer year, Collection<Long> genreIds) {
+        Attributes described = new Attributes(year, Set.copyOf(genreIds));
+        swapLock.readLock().lock();
+        try {
+            rankings.describe(filmId, described);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public long likes(long filmId) {
+        return rankings.likes.getOrDefault(filmId, 0L);
+    }
+
+    public List<Long> top(int count) {
+        return top(count, null, null);
+    }
+
+    public List<Long> top(int count, Long genreId, Integer year) {
+        Rankings current = rankings;
+        NavigableSet<Entry> source = current.ranking;
+        if (genreId != null) {
+            source = current.rankingByGenre.getOrDefault(genreId, Collections.emptyNavigableSet());
+        } else if (year != null) {
+            source = current.rankingByYear.getOrDefault(year, Collections.emptyNavigableSet());
+        }
+        boolean filterByYear = genreId != null && year != null;
+        // Обход skip-list слабо согласован: фильм, сменивший место во время обхода, может встретиться дважды
+        Set<Long> filmIds = new LinkedHashSet<>();
+        for (Entry entry : source) {
+            if (filmIds.size() >= count) {
+                break;
+            }
+            if (!filterByYear || isReleasedIn(entry.filmId(), year)) {
+                filmIds.add(entry.filmId());
+            }
+        }
+        return new ArrayList<>(filmIds);
+    }
+
+    private boolean isReleasedIn(long filmId, int year) {
+        Attributes described = attributes.get(filmId);
+        return described != null && Objects.equals(described.year(), year);
+    }
+
+    private void adjust(long filmId, long delta) {
+        swapLock.readLock().lock();
+        try {
+            rankings.adjust(filmId, delta);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Like counters with the rankings derived from them.
+     */
+    private final class Rankings {
+        private final Map<Long, Long> likes = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(BY_LIKES_DESC);
+        private final Map<Long, NavigableSet<Entry>> rankingByGenre = new ConcurrentHashMap<>();
+        private final Map<Integer, NavigableSet<Entry>> rankingByYear = new ConcurrentHashMap<>();
+
+        void describe(long filmId, Attributes described) {
+            likes.compute(filmId, (id, current) -> {
+                long count = current == null ? 0 : current;
+                unrank(id, count);
+                attributes.put(id, described);
+                rank(id, count);
+                return current;
+            });
+        }
+
+        void adjust(long filmId, long delta) {
+            likes.compute(filmId, (id, current) -> {
+                long old = current == null ? 0 : current;
+                long updated = Math.max(old + delta, 0);
+                unrank(id, old);
+                if (updated == 0) {
+                    return null;
+                }
+                rank(id, updated);
+                return updated;
+            });
+        }
+
+        private void rank(long filmId, long count) {
+            if (count == 0) {
+                return;
+            }
+            Entry entry = new Entry(filmId, count);
+            ranking.add(entry);
+            Attributes described = attributes.get(filmId);
+            if (described == null) {
+                return;
+            }
+            for (Long genreId : described.genreIds()) {
+                rankingByGenre.computeIfAbsent(genreId, id -> new ConcurrentSkipListSet<>(BY_LIKES_DESC))
+                        .add(entry);
+            }
+            if (described.year() != null) {
+                rankingByYear.computeIfAbsent(described.year(), id -> new ConcurrentSkipListSet<>(BY_LIKES_DESC))
+                        .add(entry);
+            }
+        }
+
+        private void unrank(long filmId, long count) {
+            if (count == 0) {
+                return;
+            }
+            Entry entry = new Entry(filmId, count);
+            ranking.remove(entry);
+            Attributes described = attributes.get(filmId);
+            if (described == null) {
+                return;
+            }
+            for (Long genreId : described.genreIds()) {
+                NavigableSet<Entry> genreRanking = rankingByGenre.get(genreId);
+                if (genreRanking != null) {
+                    genreRanking.remove(entry);
+                }
+            }
+            if (described.year() != null) {
+                NavigableSet<Entry> yearRanking = rankingByYear.get(described.year());
+                if (yearRanking != null) {
+                    yearRanking.remove(entry);
+                }
+            }
+        }
+    }
+
+    private record Entry(long filmId, long likes) {
+    }
+
+    private record Attributes(Integer year, Set<Long> genreIds) {
+    }
+}
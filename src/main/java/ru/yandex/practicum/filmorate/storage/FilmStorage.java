@@ -3,13 +3,27 @@ package ru.yandex.practicum.filmorate.storage;
 import ru.yandex.practicum.filmorate.model.Film;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
     Collection<Film> findAll();
 
     Film create(Film film);
 
+    List<Film> createAll(List<Film> films);
+
     Film update(Film newFilm);
 
     Film findById(Long id);
+
+    boolean exists(long id);
+
+    List<Film> findByIds(List<Long> ids);
+
+    List<Film> findPage(long afterId, int limit);
+
+    void streamAll(long afterId, Consumer<Film> consumer);
+
+    Collection<Film> getTop(int count, Long genreId, Integer year);
 }
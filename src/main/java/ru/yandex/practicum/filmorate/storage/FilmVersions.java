@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-film change counters used as HTTP validators. Films untouched since startup share version 0;
+ * every save or like change bumps the counter after the storage write, so a reader that takes the
+ * version before loading the film can only ever pair newer data with an older tag. Counters say
+ * nothing about whether a film exists; callers check storage before sending validators.
+ */
+@Component
+public class FilmVersions {
+    private final Instant startedAt = Instant.now();
+    private final Map<Long, ResourceVersion> versions = new ConcurrentHashMap<>();
+
+    public ResourceVersion get(long filmId) {
+        ResourceVersion version = versions.get(filmId);
+        return version != null ? version : new ResourceVersion(tag(filmId), 0, startedAt);
+    }
+
+    public void bump(long filmId) {
+        versions.compute(filmId, (id, current) -> new ResourceVersion(tag(id),
+                current == null ? 1 : current.version() + 1, Instant.now()));
+    }
+
+    @EventListener
+    public void onFilmSaved(FilmSavedEvent event) {
+        bump(event.filmId());
+    }
+
+    @EventListener
+    public void onLikeChanged(LikeChangedEvent event) {
+        bump(event.filmId());
+    }
+
+    private static String tag(long filmId) {
+        return "film/" + filmId;
+    }
+}
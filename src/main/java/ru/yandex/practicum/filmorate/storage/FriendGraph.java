@@ -0,0 +1,160 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Friend lists per user as sorted id arrays. An array is never modified once published:
+ * every change replaces it, so readers need no locking and common friends are a merge of two arrays.
+ * <p>
+ * The graph also keeps the reverse lists (who has a user as a friend) and caches friend suggestions
+ * per user. A change to a user's friends invalidates the suggestions of that user and of everyone
+ * who has them as a friend, since only their second-degree connections can change.
+ */
+@Component
+@Slf4j
+public class FriendGraph {
+    public static final int MAX_SUGGESTIONS = 100;
+    // Ограничение обхода для пользователей с огромным числом друзей друзей
+    private static final int MAX_CANDIDATES = 10_000;
+    // Ключ ранжирования: число общих друзей в старших битах, инвертированный id в младших
+    private static final int ID_BITS = 48;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+
+    private final Map<Long, long[]> friends = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> followers = new ConcurrentHashMap<>();
+    private final Map<Long, long[]> suggestions = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+
+    public void rebuild(Map<Long, ? extends Collection<Long>> friendsByUser) {
+        changes.incrementAndGet();
+        friends.clear();
+        followers.clear();
+        suggestions.clear();
+        friendsByUser.forEach((userId, friendIds) -> friends.put(userId, SortedIds.of(friendIds)));
+        friends.forEach((userId, friendIds) -> {
+            for (long friendId : friendIds) {
+                SortedIds.insert(followers, friendId, userId);
+            }
+        });
+        log.info("Friend graph rebuilt for {} users", friends.size());
+    }
+
+    public boolean add(long userId, long friendId) {
+        if (!SortedIds.insert(friends, userId, friendId)) {
+            return false;
+        }
+        SortedIds.insert(followers, friendId, userId);
+        invalidateSuggestions(userId);
+        return true;
+    }
+
+    public boolean remove(long userId, long friendId) {
+        if (!SortedIds.delete(friends, userId, friendId)) {
+            return false;
+        }
+        SortedIds.delete(followers, friendId, userId);
+        invalidateSuggestions(userId);
+        return true;
+    }
+
+    public boolean contains(long userId, long friendId) {
+        return Arrays.binarySearch(friends.getOrDefault(userId, SortedIds.NONE), friendId) >= 0;
+    }
+
+    public long[] friends(long userId) {
+        return friends.getOrDefault(userId, SortedIds.NONE).clone();
+    }
+
+    public long[] commonFriends(long userId, long otherUserId) {
+        long[] first = friends.getOrDefault(userId, SortedIds.NONE);
+        long[] second = friends.getOrDefault(otherUserId, SortedIds.NONE);
+        long[] common = new long[Math.min(first.length, second.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                common[size++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(common, size);
+    }
+
+    /**
+     * Friends of friends who are not yet friends of the user, most mutual friends first,
+     * then by id. At most {@link #MAX_SUGGESTIONS} are ranked.
+     */
+    public long[] suggestions(long userId, int limit) {
+        long[] ranked = suggestions.get(userId);
+        if (ranked == null) {
+            long version = changes.get();
+            ranked = rankSecondDegree(userId);
+            suggestions.put(userId, ranked);
+            // Граф изменился во время обхода - результат мог устареть, не кэшируем его
+            if (changes.get() != version) {
+                suggestions.remove(userId, ranked);
+            }
+        }
+        return Arrays.copyOf(ranked, Math.min(limit, ranked.length));
+    }
+
+    private long[] rankSecondDegree(long userId) {
+        long[] direct = friends.getOrDefault(userId, SortedIds.NONE);
+        int total = 0;
+        for (long friendId : direct) {
+            total += friends.getOrDefault(friendId, SortedIds.NONE).length;
+        }
+        long[] candidates = new long[Math.min(total, MAX_CANDIDATES)];
+        int size = 0;
+        for (int i = 0; i < direct.length && size < candidates.length; i++) {
+            for (long candidate : friends.getOrDefault(direct[i], SortedIds.NONE)) {
+                if (size == candidates.length) {
+                    break;
+                }
+                if (candidate != userId && Arrays.binarySearch(direct, candidate) < 0) {
+                    candidates[size++] = candidate;
+                }
+            }
+        }
+        Arrays.sort(candidates, 0, size);
+
+        long[] keys = new long[size];
+        int distinct = 0;
+        for (int i = 0; i < size; ) {
+            int j = i;
+            while (j < size && candidates[j] == candidates[i]) {
+                j++;
+            }
+            keys[distinct++] = (long) (j - i) << ID_BITS | (ID_MASK - candidates[i]);
+            i = j;
+        }
+        Arrays.sort(keys, 0, distinct);
+
+        long[] ranked = new long[Math.min(distinct, MAX_SUGGESTIONS)];
+        for (int i = 0; i < ranked.length; i++) {
+            ranked[i] = ID_MASK - (keys[distinct - 1 - i] & ID_MASK);
+        }
+        return ranked;
+    }
+
+    private void invalidateSuggestions(long userId) {
+        changes.incrementAndGet();
+        suggestions.remove(userId);
+        for (long followerId : followers.getOrDefault(userId, SortedIds.NONE)) {
+            suggestions.remove(followerId);
+        }
+    }
+}
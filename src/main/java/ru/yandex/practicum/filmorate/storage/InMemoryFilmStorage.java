@@ -1,72 +1,186 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
 import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
+@Profile("in-memory")
 @Slf4j
 public class InMemoryFilmStorage implements FilmStorage {
-    private final Map<Long, Film> films = new HashMap<>();
+    // Как в InMemoryUserStorage: обновление фильма и его ключей содержимого - один compute в ConcurrentHashMap
+    private final Map<Long, Film> films = new ConcurrentHashMap<>();
+    private final NavigableSet<Long> filmIds = new ConcurrentSkipListSet<>();
+    // Дубликаты ищутся по неизменяемым снимкам содержимого: объекты Film отдаются наружу и могут меняться
+    private final Map<Content, Long> idsByContent = new ConcurrentHashMap<>();
+    private final Map<Long, Content> contentById = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final FilmLeaderboard leaderboard;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public InMemoryFilmStorage(FilmLeaderboard leaderboard, ApplicationEventPublisher eventPublisher) {
+        this.leaderboard = leaderboard;
+        this.eventPublisher = eventPublisher;
+    }
 
     @Override
     public Film findById(Long id) {
         if (id == null) {
             throw new ValidationException("Id cannot be null");
         }
-        if (!films.containsKey(id)) {
+        Film film = films.get(id);
+        if (film == null) {
             log.warn("Film with id={} not found", id);
             throw new NotFoundException(String.format("Film with id '%s' not found", id));
         }
-        return films.get(id);
+        return film;
+    }
+
+    @Override
+    public boolean exists(long id) {
+        return films.containsKey(id);
     }
 
     @Override
     public Collection<Film> findAll() {
-        return films.values();
+        return after(0).toList();
+    }
+
+    @Override
+    public List<Film> findByIds(List<Long> ids) {
+        return ids.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public List<Film> findPage(long afterId, int limit) {
+        return after(afterId)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public void streamAll(long afterId, Consumer<Film> consumer) {
+        after(afterId).forEach(consumer);
+    }
+
+    @Override
+    public Collection<Film> getTop(int count, Long genreId, Integer year) {
+        return findByIds(leaderboard.top(count, genreId, year));
     }
 
     @Override
     public Film create(Film film) {
-        if (films.values().contains(film)) {
-            log.warn("Film {} already exists", film);
-            throw new DuplicatedDataException("Film already exists");
-        }
-        film.setId(getNextId());
-        films.put(film.getId(), film);
+        insert(film);
+        eventPublisher.publishEvent(FilmSavedEvent.of(film));
         log.info("Film {} created", film);
         return film;
     }
 
+    @Override
+    public List<Film> createAll(List<Film> films) {
+        List<Film> inserted = new ArrayList<>(films.size());
+        try {
+            films.forEach(film -> inserted.add(insert(film)));
+        } catch (DuplicatedDataException e) {
+            // Как транзакция в FilmRepository: пачка записывается целиком или не записывается вовсе
+            inserted.forEach(this::delete);
+            throw new DuplicateKeyException("Film #" + inserted.size() + " in batch already exists", e);
+        }
+        inserted.forEach(film -> eventPublisher.publishEvent(FilmSavedEvent.of(film)));
+        log.info("{} films created", inserted.size());
+        return inserted;
+    }
+
     @Override
     public Film update(Film newFilm) {
         if (newFilm.getId() == null) {
             log.warn("Film {} does not exist", newFilm);
             throw new ValidationException("Id cannot be null");
         }
-        if (films.containsKey(newFilm.getId())) {
-            films.replace(newFilm.getId(), newFilm);
-            log.info("Film {} updated", newFilm);
+        Content content = Content.of(newFilm);
+        Film updated = films.computeIfPresent(newFilm.getId(), (id, current) -> {
+            Content old = contentById.get(id);
+            if (!content.equals(old)) {
+                if (idsByContent.putIfAbsent(content, id) != null) {
+                    log.warn("Film {} already exists", newFilm);
+                    throw new DuplicatedDataException("Film already exists");
+                }
+                idsByContent.remove(old, id);
+                contentById.put(id, content);
+            }
             return newFilm;
-        } else {
+        });
+        if (updated == null) {
             log.warn("Film {} does not exist", newFilm);
             throw new NotFoundException(String.format("Film with id '%s' not found", newFilm.getId()));
         }
+        eventPublisher.publishEvent(FilmSavedEvent.of(newFilm));
+        log.info("Film {} updated", newFilm);
+        return newFilm;
+    }
+
+    private Film insert(Film film) {
+        Content content = Content.of(film);
+        long id = ids.incrementAndGet();
+        if (idsByContent.putIfAbsent(content, id) != null) {
+            log.warn("Film {} already exists", film);
+            throw new DuplicatedDataException("Film already exists");
+        }
+        contentById.put(id, content);
+        film.setId(id);
+        films.put(id, film);
+        filmIds.add(id);
+        return film;
     }
 
-    private long getNextId() {
-        long currentMaxId = films.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+    private void delete(Film film) {
+        long id = film.getId();
+        filmIds.remove(id);
+        films.remove(id);
+        idsByContent.remove(contentById.remove(id), id);
+        film.setId(null);
+    }
+
+    private Stream<Film> after(long afterId) {
+        return filmIds.tailSet(afterId, false).stream()
+                .map(films::get)
+                .filter(Objects::nonNull);
+    }
+
+    private record Content(String name, String description, LocalDate releaseDate, int duration, Long mpaId,
+                           Set<Long> genreIds) {
+        static Content of(Film film) {
+            Set<Long> genreIds = film.getGenres() == null ? Set.of() : film.getGenres().stream()
+                    .map(Genre::getId)
+                    .collect(Collectors.toUnmodifiableSet());
+            return new Content(film.getName(), film.getDescription(), film.getReleaseDate(), film.getDuration(),
+                    film.getMpa() == null ? null : film.getMpa().getId(), genreIds);
+        }
     }
 }
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+@Component
+@Profile("in-memory")
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryLikeStorage implements LikeStorage {
+    private final Set<Like> likes = ConcurrentHashMap.newKeySet();
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public boolean addLike(final Long userId, final Long filmId) {
+        userStorage.findById(userId);
+        filmStorage.findById(filmId);
+        if (!likes.add(new Like(userId, filmId))) {
+            return false;
+        }
+        log.info("Adding like to user {} and film {}", userId, filmId);
+        eventPublisher.publishEvent(new LikeChangedEvent(userId, filmId, true));
+        return true;
+    }
+
+    @Override
+    public boolean removeLike(final Long userId, final Long filmId) {
+        if (!likes.remove(new Like(userId, filmId))) {
+            return false;
+        }
+        eventPublisher.publishEvent(new LikeChangedEvent(userId, filmId, false));
+        return true;
+    }
+
+    @Override
+    public void streamAll(Consumer<Like> consumer) {
+        likes.forEach(consumer);
+    }
+}
@@ -1,51 +1,92 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Component
+@Profile("in-memory")
+@RequiredArgsConstructor
 @Slf4j
 public class InMemoryUserStorage implements UserStorage {
-    private final Map<Long, User> users = new HashMap<>();
+    // compute у ConcurrentHashMap выполняется ровно один раз под блокировкой ключа, поэтому индекс email
+    // меняется вместе с пользователем; упорядоченные id нужны только для постраничного чтения
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final NavigableSet<Long> userIds = new ConcurrentSkipListSet<>();
+    private final Map<String, Long> idsByEmail = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final FriendGraph friendGraph;
 
     @Override
     public User findById(Long id) {
         if (id == null) {
             throw new ValidationException("Id cannot be null");
         }
-        if (!users.containsKey(id)) {
+        User user = users.get(id);
+        if (user == null) {
             log.warn("User with id={} not found", id);
             throw new NotFoundException(String.format("User with id '%s' not found", id));
         }
-        return users.get(id);
+        return user;
     }
 
     @Override
     public Collection<User> findAll() {
-        return users.values();
+        return after(0).toList();
+    }
+
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        return after(afterId)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public void streamAll(long afterId, Consumer<User> consumer) {
+        after(afterId).forEach(consumer);
     }
 
     @Override
     public User create(final User user) {
-        setNameIfAbsent(user);
-        if (users.values().stream().anyMatch(u -> u.getEmail().equals(user.getEmail()))) {
-            log.warn("User {} already exists", user);
-            throw new DuplicatedDataException("User already exists");
-        }
-        user.setId(getNextId());
-        users.put(user.getId(), user);
+        insert(user);
         log.info("User {} created", user);
         return user;
     }
 
+    @Override
+    public List<User> createAll(List<User> users) {
+        List<User> inserted = new ArrayList<>(users.size());
+        try {
+            users.forEach(user -> inserted.add(insert(user)));
+        } catch (DuplicatedDataException e) {
+            // Как транзакция в UserRepository: пачка записывается целиком или не записывается вовсе
+            inserted.forEach(this::delete);
+            throw new DuplicateKeyException("User #" + inserted.size() + " in batch already exists", e);
+        }
+        log.info("{} users created", inserted.size());
+        return inserted;
+    }
+
     @Override
     public User update(User newUser) {
         if (newUser.getId() == null) {
@@ -53,21 +94,92 @@ public class InMemoryUserStorage implements UserStorage {
             throw new ValidationException("Id cannot be null");
         }
         setNameIfAbsent(newUser);
-        if (users.containsKey(newUser.getId())) {
-            User oldUser = users.get(newUser.getId());
-            if (!oldUser.getEmail().equals(newUser.getEmail())
-                    && users.values().stream().anyMatch(u -> u.getEmail().equals(newUser.getEmail()))) {
-                log.warn("User {} already exists", newUser);
-                throw new DuplicatedDataException("User already exists");
+        User updated = users.computeIfPresent(newUser.getId(), (id, oldUser) -> {
+            if (!Objects.equals(oldUser.getEmail(), newUser.getEmail())) {
+                if (newUser.getEmail() != null && idsByEmail.putIfAbsent(newUser.getEmail(), id) != null) {
+                    log.warn("User {} already exists", newUser);
+                    throw new DuplicatedDataException("User already exists");
+                }
+                if (oldUser.getEmail() != null) {
+                    idsByEmail.remove(oldUser.getEmail(), id);
+                }
             }
-
-            users.replace(newUser.getId(), newUser);
-            log.info("User {} updated", newUser);
             return newUser;
-        } else {
+        });
+        if (updated == null) {
             log.warn("User {} not found", newUser);
             throw new NotFoundException(String.format("User with id '%s' not found", newUser.getId()));
         }
+        log.info("User {} updated", newUser);
+        return newUser;
+    }
+
+    @Override
+    public boolean addFriend(Long userId, Long friendUserId) {
+        findById(userId);
+        findById(friendUserId);
+        return friendGraph.add(userId, friendUserId);
+    }
+
+    @Override
+    public boolean removeFriend(Long userId, Long friendUserId) {
+        findById(userId);
+        return friendGraph.remove(userId, friendUserId);
+    }
+
+    @Override
+    public Collection<User> getFriends(Long userId) {
+        findById(userId);
+        return toUsers(friendGraph.friends(userId));
+    }
+
+    @Override
+    public Collection<User> getCommonFriends(Long userId, Long otherUserId) {
+        findById(userId);
+        findById(otherUserId);
+        return toUsers(friendGraph.commonFriends(userId, otherUserId));
+    }
+
+    @Override
+    public List<User> getSuggestedFriends(Long userId, int limit) {
+        findById(userId);
+        return toUsers(friendGraph.suggestions(userId, limit));
+    }
+
+    private User insert(User user) {
+        setNameIfAbsent(user);
+        long id = ids.incrementAndGet();
+        if (user.getEmail() != null && idsByEmail.putIfAbsent(user.getEmail(), id) != null) {
+            log.warn("User {} already exists", user);
+            throw new DuplicatedDataException("User already exists");
+        }
+        user.setId(id);
+        users.put(id, user);
+        userIds.add(id);
+        return user;
+    }
+
+    private void delete(User user) {
+        long id = user.getId();
+        userIds.remove(id);
+        users.remove(id);
+        if (user.getEmail() != null) {
+            idsByEmail.remove(user.getEmail(), id);
+        }
+        user.setId(null);
+    }
+
+    private Stream<User> after(long afterId) {
+        return userIds.tailSet(afterId, false).stream()
+                .map(users::get)
+                .filter(Objects::nonNull);
+    }
+
+    private List<User> toUsers(long[] userIds) {
+        return Arrays.stream(userIds)
+                .mapToObj(users::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     private void setNameIfAbsent(User user) {
@@ -76,13 +188,4 @@ public class InMemoryUserStorage implements UserStorage {
             log.info("Set name {} for user {}", user.getName(), user);
         }
     }
-
-    private long getNextId() {
-        long currentMaxId = users.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
-    }
 }
@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.util.function.Consumer;
+
+public interface LikeStorage {
+    /**
+     * @return {@code true} if the like was added, {@code false} if it was already there
+     */
+    boolean addLike(final Long userId, final Long filmId);
+
+    /**
+     * @return {@code true} if the like was removed, {@code false} if there was none
+     */
+    boolean removeLike(final Long userId, final Long filmId);
+
+    void streamAll(Consumer<Like> consumer);
+}
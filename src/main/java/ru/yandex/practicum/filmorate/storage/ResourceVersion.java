@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.time.Instant;
+
+/**
+ * Validator pair for conditional GETs. The entity tag includes the process start time, so tags
+ * issued before a restart never match the counters of the new process.
+ */
+public record ResourceVersion(String tag, long version, Instant modifiedAt) {
+    private static final String BOOT_EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    public ResourceVersion forEntry(long id) {
+        return new ResourceVersion(tag + "/" + id, version, modifiedAt);
+    }
+
+    /**
+     * The same resource, additionally invalidated whenever {@code reference} changes.
+     */
+    public ResourceVersion with(ResourceVersion reference) {
+        Instant modified = reference.modifiedAt().isAfter(modifiedAt) ? reference.modifiedAt() : modifiedAt;
+        return new ResourceVersion(tag + "+" + reference.tag() + "." + reference.version(), version, modified);
+    }
+
+    public String etag() {
+        return "\"" + tag + "-" + BOOT_EPOCH + "-" + version + "\"";
+    }
+
+    public long lastModified() {
+        return modifiedAt.toEpochMilli();
+    }
+}
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Copy-on-write updates of sorted id arrays kept as map values. A key whose array becomes empty is removed.
+ */
+public final class SortedIds {
+    public static final long[] NONE = new long[0];
+
+    private SortedIds() {
+    }
+
+    public static boolean insert(Map<Long, long[]> lists, long key, long value) {
+        boolean[] added = new boolean[1];
+        lists.compute(key, (id, current) -> {
+            long[] ids = current == null ? NONE : current;
+            int index = Arrays.binarySearch(ids, value);
+            if (index >= 0) {
+                return current;
+            }
+            int at = -index - 1;
+            long[] updated = new long[ids.length + 1];
+            System.arraycopy(ids, 0, updated, 0, at);
+            updated[at] = value;
+            System.arraycopy(ids, at, updated, at + 1, ids.length - at);
+            added[0] = true;
+            return updated;
+        });
+        return added[0];
+    }
+
+    public static boolean delete(Map<Long, long[]> lists, long key, long value) {
+        boolean[] removed = new boolean[1];
+        lists.computeIfPresent(key, (id, ids) -> {
+            int at = Arrays.binarySearch(ids, value);
+            if (at < 0) {
+                return ids;
+            }
+            removed[0] = true;
+            if (ids.length == 1) {
+                return null;
+            }
+            long[] updated = new long[ids.length - 1];
+            System.arraycopy(ids, 0, updated, 0, at);
+            System.arraycopy(ids, at + 1, updated, at, ids.length - at - 1);
+            return updated;
+        });
+        return removed[0];
+    }
+
+    public static long[] of(Collection<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+}
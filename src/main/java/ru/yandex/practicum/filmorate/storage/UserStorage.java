@@ -3,13 +3,31 @@ package ru.yandex.practicum.filmorate.storage;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     Collection<User> findAll();
 
     User create(final User user);
 
+    List<User> createAll(List<User> users);
+
     User update(User user);
 
     User findById(final Long id);
+
+    List<User> findPage(long afterId, int limit);
+
+    void streamAll(long afterId, Consumer<User> consumer);
+
+    boolean addFriend(Long userId, Long friendUserId);
+
+    boolean removeFriend(Long userId, Long friendUserId);
+
+    Collection<User> getFriends(Long userId);
+
+    Collection<User> getCommonFriends(Long userId, Long otherUserId);
+
+    List<User> getSuggestedFriends(Long userId, int limit);
 }
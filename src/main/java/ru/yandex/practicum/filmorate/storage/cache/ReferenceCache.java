@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.storage.ResourceVersion;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-memory dictionary for small reference tables. Lookups are served from an immutable
+ * snapshot that is swapped atomically on {@link #refresh()}; a miss never reaches the database,
+ * so rows added since the last refresh become visible with the next one.
+ */
+@Slf4j
+public class ReferenceCache<T> {
+    private final String name;
+    private final Supplier<Collection<T>> loader;
+    private final ToLongFunction<T> idExtractor;
+    private final AtomicReference<Snapshot<T>> snapshot =
+            new AtomicReference<>(new Snapshot<>(List.of(), Map.of(), 0, Instant.EPOCH));
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ReferenceCache(String name, Supplier<Collection<T>> loader, ToLongFunction<T> idExtractor) {
+        this.name = name;
+        this.loader = loader;
+        this.idExtractor = idExtractor;
+    }
+
+    public synchronized void refresh() {
+        List<T> items = List.copyOf(loader.get());
+        Map<Long, T> byId = new LinkedHashMap<>();
+        items.forEach(item -> byId.put(idExtractor.applyAsLong(item), item));
+        Snapshot<T> current = snapshot.get();
+        if (current.version() > 0 && current.items().equals(items)) {
+            // Данные не изменились: сохраняем версию, чтобы ETag клиентов оставался валидным
+            log.debug("Reference cache '{}' unchanged, version {}", name, current.version());
+            return;
+        }
+        Snapshot<T> loaded = new Snapshot<>(items, Map.copyOf(byId), current.version() + 1, Instant.now());
+        snapshot.set(loaded);
+        log.info("Reference cache '{}' loaded {} entries, version {}", name, items.size(), loaded.version());
+    }
+
+    public Collection<T> findAll() {
+        hits.increment();
+        return snapshot.get().items();
+    }
+
+    public T findById(long id) {
+        T item = snapshot.get().byId().get(id);
+        if (item != null) {
+            hits.increment();
+            return item;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getVersion() {
+        return snapshot.get().version();
+    }
+
+    public ResourceVersion getResourceVersion() {
+        Snapshot<T> current = snapshot.get();
+        return new ResourceVersion(name, current.version(), current.loadedAt());
+    }
+
+    public Instant getLoadedAt() {
+        return snapshot.get().loadedAt();
+    }
+
+    public int size() {
+        return snapshot.get().items().size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public Stats getStats() {
+        Snapshot<T> current = snapshot.get();
+        return new Stats(name, current.items().size(), current.version(), current.loadedAt(),
+                hits.sum(), misses.sum());
+    }
+
+    public record Stats(String name, int size, long version, Instant loadedAt, long hits, long misses) {
+    }
+
+    private record Snapshot<T>(List<T> items, Map<Long, T> byId, long version, Instant loadedAt) {
+    }
+}
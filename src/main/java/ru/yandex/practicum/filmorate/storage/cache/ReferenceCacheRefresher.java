@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.storage.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.repository.GenreRepository;
+import ru.yandex.practicum.filmorate.storage.repository.MpaRepository;
+
+import java.util.List;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReferenceCacheRefresher {
+    private final GenreRepository genreRepository;
+    private final MpaRepository mpaRepository;
+
+    @Scheduled(fixedDelayString = "${filmorate.reference-cache.refresh-interval:PT10M}",
+            initialDelayString = "${filmorate.reference-cache.refresh-interval:PT10M}")
+    public void refreshAll() {
+        log.debug("Refreshing reference caches");
+        genreRepository.refresh();
+        mpaRepository.refresh();
+    }
+
+    public List<ReferenceCache<?>> getCaches() {
+        return List.of(genreRepository.getCache(), mpaRepository.getCache());
+    }
+}
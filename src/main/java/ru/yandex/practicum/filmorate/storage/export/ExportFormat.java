@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.storage.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Encodes table rows straight from a {@link ResultSet} onto an output stream, one row at a time.
+ */
+public enum ExportFormat {
+    CSV {
+        @Override
+        public RowWriter open(OutputStream out, List<String> columns) throws IOException {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            writeLine(writer, columns.toArray());
+            return new RowWriter() {
+                private final Object[] values = new Object[columns.size()];
+
+                @Override
+                public void write(ResultSet rs) throws SQLException, IOException {
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = rs.getObject(i + 1);
+                    }
+                    writeLine(writer, values);
+                }
+
+                @Override
+                public void finish() throws IOException {
+                    writer.flush();
+                }
+            };
+        }
+
+        private static void writeLine(Writer writer, Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writer.write(escape(values[i].toString()));
+                }
+            }
+            writer.write('\n');
+        }
+
+        private static String escape(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    return '"' + value.replace("\"", "\"\"") + '"';
+                }
+            }
+            return value;
+        }
+    },
+    NDJSON {
+        private static final JsonFactory JSON = new JsonFactory();
+
+        @Override
+        public RowWriter open(OutputStream out, List<String> columns) throws IOException {
+            JsonGenerator generator = JSON.createGenerator(out);
+            generator.setRootValueSeparator(null);
+            return new RowWriter() {
+                @Override
+                public void write(ResultSet rs) throws SQLException, IOException {
+                    generator.writeStartObject();
+                    for (int i = 0; i < columns.size(); i++) {
+                        Object value = rs.getObject(i + 1);
+                        generator.writeFieldName(columns.get(i));
+                        if (value == null) {
+                            generator.writeNull();
+                        } else if (value instanceof Long number) {
+                            generator.writeNumber(number);
+                        } else if (value instanceof Integer number) {
+                            generator.writeNumber(number);
+                        } else {
+                            generator.writeString(value.toString());
+                        }
+                    }
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+
+                @Override
+                public void finish() throws IOException {
+                    generator.flush();
+                }
+            };
+        }
+    };
+
+    public static Optional<ExportFormat> of(String name) {
+        for (ExportFormat value : values()) {
+            if (value.fileExtension().equals(name.toLowerCase(Locale.ROOT))) {
+                return Optional.of(value);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public String fileExtension() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public abstract RowWriter open(OutputStream out, List<String> columns) throws IOException;
+
+    public interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+}
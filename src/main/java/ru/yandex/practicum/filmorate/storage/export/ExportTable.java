@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.storage.export;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Tables available for bulk export, with the columns written in order. Rows are read in primary key
+ * order so that consecutive dumps are easy to diff.
+ */
+public enum ExportTable {
+    FILM("film", List.of("id", "name", "description", "release_date", "duration", "mpa_rating_id"), "id"),
+    LIKE("`like`", List.of("user_id", "film_id"), "user_id, film_id"),
+    FRIEND("friend", List.of("user_id", "friend_id"), "user_id, friend_id"),
+    FILM_GENRE("film_genre", List.of("film_id", "genre_id"), "id");
+
+    private final String table;
+    private final List<String> columns;
+    private final String orderBy;
+
+    ExportTable(String table, List<String> columns, String orderBy) {
+        this.table = table;
+        this.columns = columns;
+        this.orderBy = orderBy;
+    }
+
+    public static Optional<ExportTable> of(String name) {
+        for (ExportTable value : values()) {
+            if (value.fileName().equals(name.toLowerCase(Locale.ROOT))) {
+                return Optional.of(value);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public String fileName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public String selectSql() {
+        return "SELECT " + String.join(", ", columns) + " FROM " + table + " ORDER BY " + orderBy + ";";
+    }
+}
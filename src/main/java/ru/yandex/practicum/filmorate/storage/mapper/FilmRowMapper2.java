@@ -1,21 +0,0 @@
-package ru.yandex.practicum.filmorate.storage.mapper;
-
-import org.springframework.jdbc.core.RowMapper;
-import ru.yandex.practicum.filmorate.model.Film;
-
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.time.LocalDate;
-
-public class FilmRowMapper2 implements RowMapper<Film> {
-    @Override
-    public Film mapRow(ResultSet rs, int rowNum) throws SQLException {
-        Film film = new Film();
-        film.setId(rs.getLong("film_id"));
-        film.setName(rs.getString("name"));
-        film.setDescription(rs.getString("description"));
-        film.setReleaseDate(rs.getObject("release_date", LocalDate.class));
-        film.setDuration(rs.getInt("duration"));
-        return film;
-    }
-}
\ No newline at end of file
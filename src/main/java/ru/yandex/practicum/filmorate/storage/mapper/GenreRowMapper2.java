@@ -1,17 +0,0 @@
-package ru.yandex.practicum.filmorate.storage.mapper;
-
-import org.springframework.jdbc.core.RowMapper;
-import ru.yandex.practicum.filmorate.model.Genre;
-
-import java.sql.ResultSet;
-import java.sql.SQLException;
-
-public class GenreRowMapper2 implements RowMapper<Genre> {
-    @Override
-    public Genre mapRow(ResultSet rs, int rowNum) throws SQLException {
-        Genre genre = new Genre();
-        genre.setId(rs.getInt("genre_id"));
-        genre.setName(rs.getString("genre_name"));
-        return genre;
-    }
-}
@@ -1,18 +0,0 @@
-package ru.yandex.practicum.filmorate.storage.mapper;
-
-import org.springframework.jdbc.core.RowMapper;
-import ru.yandex.practicum.filmorate.model.Mpa;
-
-import java.sql.ResultSet;
-import java.sql.SQLException;
-
-public class MpaRowMapper2 implements RowMapper<Mpa> {
-    @Override
-    public Mpa mapRow(ResultSet rs, int rowNum) throws SQLException {
-        Mpa mpa = new Mpa();
-        mpa.setId(rs.getInt("mpa_rating_id"));
-        mpa.setName(rs.getString("mpa_name"));
-        mpa.setDescription(rs.getString("mpa_description"));
-        return mpa;
-    }
-}
@@ -0,0 +1,327 @@
+package ru.yandex.practicum.filmorate.storage.recommendation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.storage.SortedIds;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Item-item collaborative filtering over likes.
+ * <p>
+ * The sparse user x film like matrix is kept both by rows (films liked by a user) and by columns
+ * (users who liked a film) as sorted id arrays that are replaced on every change. For every film the
+ * {@link #NEIGHBORS} most similar films by cosine similarity of their columns are precomputed in
+ * parallel on the fork-join pool. Likes change the matrix immediately and mark the affected films,
+ * whose neighbors are recomputed by {@link #recomputeDirty()}; recommendations are then scored from
+ * memory only. Co-likes of films with more than {@link #MAX_LIKERS_SAMPLED} likers are estimated
+ * from an even sample of them. A full {@link #rebuild} never exposes a half-built matrix to readers.
+ */
+@Component
+@Slf4j
+public class FilmSimilarityIndex {
+    public static final int NEIGHBORS = 20;
+    public static final int MAX_LIKERS_SAMPLED = 1000;
+    private static final int FILMS_PER_TASK = 64;
+
+    private volatile Matrix matrix = new Matrix();
+    // Лайки применяются под read-lock, замена матрицы при перестроении - под write-lock
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private Queue<LikeChangedEvent> missed;
+
+    /**
+     * Builds a new matrix from the loaded likes and swaps it in atomically. Likes that arrive while the
+     * likes are loaded are applied to the current matrix as usual and replayed onto the new one.
+     */
+    public synchronized void rebuild(Supplier<? extends Map<Long, ? extends Collection<Long>>> likesLoader) {
+        Queue<LikeChangedEvent> replay = new ConcurrentLinkedQueue<>();
+        swapLock.writeLock().lock();
+        try {
+            missed = replay;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        Matrix rebuilt = null;
+        try {
+            rebuilt = new Matrix(likesLoader.get());
+            long[] filmIds = rebuilt.usersByFilm.keySet().stream().mapToLong(Long::longValue).toArray();
+            ForkJoinPool.commonPool().invoke(
+                    new NeighborsTask(rebuilt, filmIds, 0, filmIds.length, rebuilt.neighbors));
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                missed = null;
+                if (rebuilt != null) {
+                    // Соседи затронутых фильмов пересчитаются в recomputeDirty
+                    replay.forEach(rebuilt::apply);
+                    matrix = rebuilt;
+                }
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+        log.info("Film similarity rebuilt for {} users and {} films, {} likes replayed",
+                rebuilt.filmsByUser.size(), rebuilt.neighbors.size(), replay.size());
+    }
+
+    @EventListener
+    public void onLikeChanged(LikeChangedEvent event) {
+        swapLock.readLock().lock();
+        try {
+            matrix.apply(event);
+            if (missed != null) {
+                missed.add(event);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recomputes neighbors of the films touched by likes since the last call.
+     */
+    public int recomputeDirty() {
+        Matrix current = matrix;
+        if (current.dirty.isEmpty()) {
+            return 0;
+        }
+        long[] filmIds = current.dirty.stream().mapToLong(Long::longValue).toArray();
+        for (long filmId : filmIds) {
+            current.dirty.remove(filmId);
+        }
+        Map<Long, Neighbors> computed = new ConcurrentHashMap<>();
+        ForkJoinPool.commonPool().invoke(new NeighborsTask(current, filmIds, 0, filmIds.length, computed));
+        for (long filmId : filmIds) {
+            Neighbors updated = computed.get(filmId);
+            if (updated == null) {
+                current.neighbors.remove(filmId);
+            } else {
+                current.neighbors.put(filmId, updated);
+            }
+        }
+        log.debug("Film similarity recomputed for {} films", filmIds.length);
+        return filmIds.length;
+    }
+
+    /**
+     * Films the user has not liked, scored by the summed similarity to the films they liked.
+     */
+    public long[] recommend(long userId, int limit) {
+        Matrix current = matrix;
+        long[] liked = current.filmsByUser.getOrDefault(userId, SortedIds.NONE);
+        Map<Long, Double> scores = new HashMap<>();
+        for (long filmId : liked) {
+            Neighbors similar = current.neighbors.get(filmId);
+            if (similar == null) {
+                continue;
+            }
+            for (int i = 0; i < similar.filmIds().length; i++) {
+                long candidate = similar.filmIds()[i];
+                if (Arrays.binarySearch(liked, candidate) < 0) {
+                    scores.merge(candidate, (double) similar.scores()[i], Double::sum);
+                }
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+    }
+
+    public int size() {
+        return matrix.neighbors.size();
+    }
+
+    /**
+     * The like matrix by rows and by columns with the neighbors computed from it.
+     */
+    private static final class Matrix {
+        private final Map<Long, long[]> filmsByUser = new ConcurrentHashMap<>();
+        private final Map<Long, long[]> usersByFilm = new ConcurrentHashMap<>();
+        private final Map<Long, Neighbors> neighbors = new ConcurrentHashMap<>();
+        private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+        Matrix() {
+        }
+
+        Matrix(Map<Long, ? extends Collection<Long>> likesByUser) {
+            Map<Long, List<Long>> likersByFilm = new HashMap<>();
+            likesByUser.forEach((userId, filmIds) -> filmIds.forEach(filmId ->
+                    likersByFilm.computeIfAbsent(filmId, id -> new ArrayList<>()).add(userId)));
+            likesByUser.forEach((userId, filmIds) -> filmsByUser.put(userId, SortedIds.of(filmIds)));
+            likersByFilm.forEach((filmId, userIds) -> usersByFilm.put(filmId, SortedIds.of(userIds)));
+        }
+
+        void apply(LikeChangedEvent event) {
+            boolean changed = event.liked()
+                    ? SortedIds.insert(filmsByUser, event.userId(), event.filmId())
+                    : SortedIds.delete(filmsByUser, event.userId(), event.filmId());
+            if (!changed) {
+                return;
+            }
+            if (event.liked()) {
+                SortedIds.insert(usersByFilm, event.filmId(), event.userId());
+            } else {
+                SortedIds.delete(usersByFilm, event.filmId(), event.userId());
+            }
+            // Изменилась колонка фильма и его сходство со всеми фильмами этого пользователя
+            dirty.add(event.filmId());
+            for (long filmId : filmsByUser.getOrDefault(event.userId(), SortedIds.NONE)) {
+                dirty.add(filmId);
+            }
+        }
+
+        Neighbors computeNeighbors(long filmId) {
+            long[] likers = usersByFilm.getOrDefault(filmId, SortedIds.NONE);
+            if (likers.length == 0) {
+                return null;
+            }
+            // У популярных фильмов совместные лайки считаются по равномерной выборке лайкнувших
+            int sampled = Math.min(likers.length, MAX_LIKERS_SAMPLED);
+            CoLikes coLikes = new CoLikes();
+            for (int i = 0; i < sampled; i++) {
+                long userId = likers[(int) ((long) i * likers.length / sampled)];
+                for (long other : filmsByUser.getOrDefault(userId, SortedIds.NONE)) {
+                    if (other != filmId) {
+                        coLikes.increment(other);
+                    }
+                }
+            }
+            double scale = (double) likers.length / sampled;
+
+            long[] ids = new long[NEIGHBORS];
+            float[] scores = new float[NEIGHBORS];
+            int count = 0;
+            for (int slot = 0; slot < coLikes.keys.length; slot++) {
+                long other = coLikes.keys[slot];
+                if (other == CoLikes.EMPTY) {
+                    continue;
+                }
+                int otherLikers = usersByFilm.getOrDefault(other, SortedIds.NONE).length;
+                if (otherLikers == 0) {
+                    continue;
+                }
+                float score = (float) (coLikes.counts[slot] * scale / Math.sqrt((double) likers.length * otherLikers));
+                if (count < NEIGHBORS || ranksBefore(score, other, scores[count - 1], ids[count - 1])) {
+                    int at = count < NEIGHBORS ? count++ : NEIGHBORS - 1;
+                    while (at > 0 && ranksBefore(score, other, scores[at - 1], ids[at - 1])) {
+                        ids[at] = ids[at - 1];
+                        scores[at] = scores[at - 1];
+                        at--;
+                    }
+                    ids[at] = other;
+                    scores[at] = score;
+                }
+            }
+            return count == 0 ? null : new Neighbors(Arrays.copyOf(ids, count), Arrays.copyOf(scores, count));
+        }
+
+        private static boolean ranksBefore(float score, long filmId, float otherScore, long otherFilmId) {
+            return score > otherScore || score == otherScore && filmId < otherFilmId;
+        }
+    }
+
+    /**
+     * Open-addressing counter from film id to the number of co-likes, free of boxing.
+     */
+    private static final class CoLikes {
+        // Идентификаторы фильмов положительные, ноль отмечает свободную ячейку
+        private static final long EMPTY = 0;
+
+        private long[] keys = new long[64];
+        private int[] counts = new int[64];
+        private int size;
+
+        void increment(long filmId) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            int slot = slot(keys, filmId);
+            if (keys[slot] == EMPTY) {
+                keys[slot] = filmId;
+                size++;
+            }
+            counts[slot]++;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = slot(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        private static int slot(long[] keys, long filmId) {
+            int mask = keys.length - 1;
+            int slot = (int) ((filmId * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != filmId) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+
+    private record Neighbors(long[] filmIds, float[] scores) {
+    }
+
+    // Задачи не сериализуются, RecursiveAction лишь наследует Serializable от ForkJoinTask
+    private static final class NeighborsTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient Matrix source;
+        private final long[] filmIds;
+        private final int from;
+        private final int to;
+        private final transient Map<Long, Neighbors> result;
+
+        private NeighborsTask(Matrix source, long[] filmIds, int from, int to, Map<Long, Neighbors> result) {
+            this.source = source;
+            this.filmIds = filmIds;
+            this.from = from;
+            this.to = to;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= FILMS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    Neighbors computed = source.computeNeighbors(filmIds[i]);
+                    if (computed != null) {
+                        result.put(filmIds[i], computed);
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new NeighborsTask(source, filmIds, from, middle, result),
+                    new NeighborsTask(source, filmIds, middle, to, result));
+        }
+    }
+}
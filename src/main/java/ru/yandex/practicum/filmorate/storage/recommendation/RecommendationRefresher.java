@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.storage.recommendation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RecommendationRefresher {
+    private final LikeStorage likeStorage;
+    private final FilmSimilarityIndex similarityIndex;
+
+    @Scheduled(fixedDelayString = "${filmorate.recommendations.rebuild-interval:PT1H}")
+    public void rebuild() {
+        similarityIndex.rebuild(() -> {
+            Map<Long, List<Long>> likesByUser = new HashMap<>();
+            likeStorage.streamAll(like -> likesByUser.computeIfAbsent(like.userId(), id -> new ArrayList<>())
+                    .add(like.filmId()));
+            return likesByUser;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.recommendations.update-interval:PT30S}",
+            initialDelayString = "${filmorate.recommendations.update-interval:PT30S}")
+    public void update() {
+        similarityIndex.recomputeDirty();
+    }
+}
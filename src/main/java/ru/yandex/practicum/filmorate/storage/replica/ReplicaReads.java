@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.storage.replica;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs service reads in read-only transactions, which {@link ReplicaDataSourceConfiguration}
+ * routes to the replica. A user who has just changed their likes, friends or profile reads
+ * from the primary for {@code filmorate.replica.sticky-for}, so replication lag never hides
+ * their own writes. Stickiness is kept per application instance.
+ * <p>
+ * Without a configured replica reads run as before, outside any transaction.
+ */
+@Component
+public class ReplicaReads {
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final TransactionTemplate readOnly;
+    private final long stickyNanos;
+    private final Map<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    public ReplicaReads(PlatformTransactionManager transactionManager,
+                        @Value("${filmorate.datasource.replica.jdbc-url:}") String replicaUrl,
+                        @Value("${filmorate.replica.sticky-for:PT5S}") Duration stickyFor) {
+        if (replicaUrl.isBlank()) {
+            this.readOnly = null;
+        } else {
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+        }
+        this.stickyNanos = stickyFor.toNanos();
+    }
+
+    public <T> T read(Supplier<T> query) {
+        if (readOnly == null) {
+            return query.get();
+        }
+        return readOnly.execute(status -> query.get());
+    }
+
+    public void readStream(Runnable query) {
+        read(() -> {
+            query.run();
+            return null;
+        });
+    }
+
+    /**
+     * Reads on behalf of {@code userId}: from the primary if that user wrote recently,
+     * otherwise like {@link #read(Supplier)}.
+     */
+    public <T> T readFor(long userId, Supplier<T> query) {
+        return isSticky(userId) ? query.get() : read(query);
+    }
+
+    public void wrote(long userId) {
+        if (readOnly == null || stickyNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        stickyUntil.put(userId, now + stickyNanos);
+        if (stickyUntil.size() > PURGE_THRESHOLD) {
+            stickyUntil.values().removeIf(until -> until - now <= 0);
+        }
+    }
+
+    private boolean isSticky(long userId) {
+        Long until = stickyUntil.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() > 0) {
+            return true;
+        }
+        stickyUntil.remove(userId, until);
+        return false;
+    }
+}
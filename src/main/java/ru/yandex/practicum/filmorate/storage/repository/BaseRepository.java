@@ -2,18 +2,27 @@ package ru.yandex.practicum.filmorate.storage.repository;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 @RequiredArgsConstructor
 public class BaseRepository<T> {
+    private static final int STREAM_FETCH_SIZE = 500;
+
     protected final JdbcTemplate jdbcTemplate;
 
     protected T findOne(String query, RowMapper<T> rowMapper, Object... params) {
@@ -28,19 +37,33 @@ public class BaseRepository<T> {
         return jdbcTemplate.query(query, rowMapper, params);
     }
 
+    protected void stream(String query, RowCallbackHandler rowCallbackHandler, Object... params) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection
+                    .prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            return ps;
+        }, rowCallbackHandler);
+    }
+
     protected boolean delete(String query, Object... params) {
         int rowsDeleted = jdbcTemplate.update(query, params);
         return rowsDeleted > 0;
     }
 
+    /**
+     * Runs a conditional insert such as {@code MERGE ... WHEN NOT MATCHED THEN INSERT} and reports
+     * whether a row was written, so repeated writes need neither a lookup nor a caught exception.
+     */
+    protected boolean merge(String query, Object... params) {
+        return jdbcTemplate.update(query, params) > 0;
+    }
+
     protected void update(String query, Object... params) {
-        int rowsUpdated = jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(query);
-            for (int i = 0; i < params.length; i++) {
-                ps.setObject(i + 1, params[i]);
-            }
-            return ps;
-        });
+        int rowsUpdated = jdbcTemplate.update(query, params);
 
         if (rowsUpdated == 0) {
             throw new NotFoundException("Data wasn't saved");
@@ -67,28 +90,38 @@ public class BaseRepository<T> {
         }
     }
 
-    protected Long insertMultipleKeys(String query, Object... params) {
+    /**
+     * Inserts all rows as one JDBC batch and returns the generated ids in input order.
+     */
+    protected <E> List<Long> insertAll(String query, List<E> rows, ParameterizedPreparedStatementSetter<E> setter) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
         GeneratedKeyHolder generatedKeyHolder = new GeneratedKeyHolder();
-
-        jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
-            for (int i = 0; i < params.length; i++) {
-                ps.setObject(i + 1, params[i]);
-            }
-            return ps;
-        }, generatedKeyHolder);
-
-        Map<String, Object> keys = generatedKeyHolder.getKeys();
-
-        if (keys != null && !keys.isEmpty()) {
-            for (Object value : keys.values()) {
-                if (value instanceof Long) {
-                    return (Long) value;
-                }
-            }
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setter.setValues(ps, rows.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, generatedKeyHolder);
+
+        List<Map<String, Object>> keys = generatedKeyHolder.getKeyList();
+        if (keys.size() != rows.size()) {
+            throw new NotFoundException("Data wasn't saved: expected " + rows.size() + " keys, got " + keys.size());
         }
-        throw new NotFoundException("Data wasn't saved or no valid key found");
+        return keys.stream()
+                .map(key -> ((Number) key.values().iterator().next()).longValue())
+                .toList();
     }
 
+    protected static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
 
 }
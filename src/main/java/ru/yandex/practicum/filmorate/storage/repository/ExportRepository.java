@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.storage.repository;
+
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.storage.export.ExportTable;
+
+@Repository
+@Timed(value = "filmorate.repository", histogram = true)
+public class ExportRepository extends BaseRepository<Object> {
+
+    public ExportRepository(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate);
+    }
+
+    /**
+     * Hands every row of the table to the handler through a forward-only cursor without collecting them.
+     */
+    public void export(ExportTable table, RowCallbackHandler handler) {
+        stream(table.selectSql(), handler);
+    }
+}
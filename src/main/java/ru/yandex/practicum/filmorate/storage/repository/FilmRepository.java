@@ -1,81 +1,236 @@
 package ru.yandex.practicum.filmorate.storage.repository;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.FilmLeaderboard;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
-import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper2;
-import ru.yandex.practicum.filmorate.storage.mapper.GenreRowMapper2;
-import ru.yandex.practicum.filmorate.storage.mapper.MpaRowMapper2;
 
-import java.sql.PreparedStatement;
+import java.sql.Array;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Repository
+@Profile("!in-memory")
+@Timed(value = "filmorate.repository", histogram = true)
 @Slf4j
 public class FilmRepository extends BaseRepository<Film> implements FilmStorage {
+    private static final String SELECT_FILMS = "SELECT f.* FROM film AS f ";
+    private static final String SELECT_FILM_GENRES = "SELECT fg.film_id, fg.genre_id FROM film_genre AS fg ";
+    // Одна строка на фильм, жанры собираются на стороне БД: меньше строк и байт по сети,
+    // но во встроенной H2 коррелированный подзапрос не дешевле, поэтому путь включается флагом
+    private static final String SELECT_FILMS_WITH_GENRES = """
+            SELECT f.*,
+                   (SELECT ARRAY_AGG(fg.genre_id ORDER BY fg.genre_id)
+                    FROM film_genre AS fg
+                    WHERE fg.film_id = f.id) AS genre_ids
+            FROM film AS f
+            """;
+    private static final String INSERT_FILM = """
+            INSERT INTO film (name, description, release_date, duration, mpa_rating_id)
+            VALUES (?,?,?,?,?);
+            """;
+
     private final FilmRowMapper filmRowMapper;
+    private final GenreRepository genreRepository;
+    private final FilmLeaderboard leaderboard;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean aggregateGenres;
+    private final RowMapper<Film> filmWithGenresRowMapper = this::mapFilmWithGenres;
 
-    public FilmRepository(JdbcTemplate jdbcTemplate, FilmRowMapper filmRowMapper) {
+    public FilmRepository(JdbcTemplate jdbcTemplate, FilmRowMapper filmRowMapper, GenreRepository genreRepository,
+                          FilmLeaderboard leaderboard, ApplicationEventPublisher eventPublisher,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${filmorate.films.aggregate-genres:false}") boolean aggregateGenres) {
         super(jdbcTemplate);
         this.filmRowMapper = filmRowMapper;
+        this.genreRepository = genreRepository;
+        this.leaderboard = leaderboard;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.aggregateGenres = aggregateGenres;
+    }
+
+    @PostConstruct
+    public void loadLeaderboardFilters() {
+        String sql = """
+                SELECT f.id, EXTRACT(YEAR FROM f.release_date) AS release_year, fg.genre_id
+                FROM film AS f
+                LEFT JOIN film_genre AS fg ON fg.film_id = f.id
+                ORDER BY f.id;
+                """;
+        Map<Long, Integer> years = new HashMap<>();
+        Map<Long, List<Long>> genres = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            long filmId = rs.getLong("id");
+            int year = rs.getInt("release_year");
+            years.put(filmId, rs.wasNull() ? null : year);
+            List<Long> filmGenres = genres.computeIfAbsent(filmId, id -> new ArrayList<>());
+            long genreId = rs.getLong("genre_id");
+            if (!rs.wasNull()) {
+                filmGenres.add(genreId);
+            }
+        });
+        years.forEach((filmId, year) -> leaderboard.describe(filmId, year, genres.get(filmId)));
+        log.info("Leaderboard filters loaded for {} films", years.size());
     }
 
     @Override
     public Film findById(Long id) {
-        String sql = "SELECT * FROM film WHERE id = ?;";
-        var film = findOne(sql, filmRowMapper, id);
-        if (film == null) {
+        List<Film> films = findByIds(List.of(id));
+        if (films.isEmpty()) {
             throw new NotFoundException("Film not found");
         }
-        return film;
+        return films.getFirst();
+    }
+
+    @Override
+    public boolean exists(long id) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS(SELECT 1 FROM film WHERE id = ?);", Boolean.class, id));
     }
 
     @Override
     public Collection<Film> findAll() {
-        String sql = "SELECT * FROM film;";
-        return findMany(sql, filmRowMapper);
+        if (aggregateGenres) {
+            return jdbcTemplate.query(SELECT_FILMS_WITH_GENRES + "ORDER BY f.id;", filmWithGenresRowMapper);
+        }
+        Map<Long, Film> films = new LinkedHashMap<>();
+        for (Film film : findMany(SELECT_FILMS + "ORDER BY f.id;", filmRowMapper)) {
+            films.put(film.getId(), film);
+        }
+        loadGenres(films, SELECT_FILM_GENRES + "ORDER BY fg.film_id, fg.genre_id;");
+        return films.values();
     }
 
     @Override
-    public Film create(Film film) {
+    public List<Film> findPage(long afterId, int limit) {
+        Map<Long, Film> films = new LinkedHashMap<>();
+        for (Film film : findMany(SELECT_FILMS + "WHERE f.id > ? ORDER BY f.id LIMIT ?;", filmRowMapper,
+                afterId, limit)) {
+            films.put(film.getId(), film);
+        }
+        if (films.isEmpty()) {
+            return List.of();
+        }
+        long lastId = films.keySet().stream().reduce((first, second) -> second).orElseThrow();
+        loadGenres(films, SELECT_FILM_GENRES + "WHERE fg.film_id > ? AND fg.film_id <= ? ORDER BY fg.genre_id;",
+                afterId, lastId);
+        return new ArrayList<>(films.values());
+    }
+
+    private Film mapFilmWithGenres(ResultSet rs, int rowNum) throws SQLException {
+        Film film = filmRowMapper.mapRow(rs, rowNum);
+        Array genreIds = rs.getArray("genre_ids");
+        if (genreIds != null) {
+            for (Object genreId : (Object[]) genreIds.getArray()) {
+                film.getGenres().add(findGenre(((Number) genreId).longValue()));
+            }
+            genreIds.free();
+        }
+        return film;
+    }
+
+    @Override
+    public void streamAll(long afterId, Consumer<Film> consumer) {
+        if (aggregateGenres) {
+            stream(SELECT_FILMS_WITH_GENRES + "WHERE f.id > ? ORDER BY f.id;",
+                    rs -> consumer.accept(filmWithGenresRowMapper.mapRow(rs, rs.getRow())), afterId);
+            return;
+        }
         String sql = """
-                INSERT INTO film (name, description, release_date, duration, mpa_rating_id)
-                VALUES (?,?,?,?,?);
+                SELECT f.*, fg.genre_id
+                FROM film AS f
+                LEFT JOIN film_genre AS fg ON fg.film_id = f.id
+                WHERE f.id > ?
+                ORDER BY f.id, fg.genre_id;
                 """;
-        long id = insert(sql,
-                film.getName(),
-                film.getDescription(),
-                film.getReleaseDate(),
-                film.getDuration(),
-                film.getMpa().getId());
-        film.setId(id);
-        saveGenres(film);
+        // Строки одного фильма идут подряд, поэтому в памяти держим только текущий фильм
+        Film[] current = new Film[1];
+        stream(sql, rs -> {
+            long filmId = rs.getLong("id");
+            if (current[0] == null || current[0].getId() != filmId) {
+                if (current[0] != null) {
+                    consumer.accept(current[0]);
+                }
+                current[0] = filmRowMapper.mapRow(rs, rs.getRow());
+            }
+            long genreId = rs.getLong("genre_id");
+            if (!rs.wasNull()) {
+                current[0].getGenres().add(findGenre(genreId));
+            }
+        }, afterId);
+        if (current[0] != null) {
+            consumer.accept(current[0]);
+        }
+    }
+
+    @Override
+    public Film create(Film film) {
+        transactionTemplate.executeWithoutResult(status -> {
+            long id = insert(INSERT_FILM,
+                    film.getName(),
+                    film.getDescription(),
+                    film.getReleaseDate(),
+                    film.getDuration(),
+                    film.getMpa().getId());
+            film.setId(id);
+            saveGenres(List.of(film));
+        });
+        eventPublisher.publishEvent(FilmSavedEvent.of(film));
         return film;
     }
 
-    private void saveGenres(Film film) {
-        String sql = "INSERT INTO film_genre (film_id, genre_id) VALUES (?,?);";
-        List<Genre> genres = new ArrayList<>(film.getGenres());
-        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
-            @Override
-            public void setValues(PreparedStatement ps, int i) throws SQLException {
-                Genre genre = genres.get(i);
-                ps.setLong(1, film.getId());
-                ps.setLong(2, genre.getId());
+    @Override
+    public List<Film> createAll(List<Film> films) {
+        // Фильмы и их жанры пишутся одной транзакцией, события публикуем только после коммита
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> ids = insertAll(INSERT_FILM, films, (ps, film) -> {
+                ps.setString(1, film.getName());
+                ps.setString(2, film.getDescription());
+                ps.setObject(3, film.getReleaseDate());
+                ps.setInt(4, film.getDuration());
+                ps.setLong(5, film.getMpa().getId());
+            });
+            for (int i = 0; i < films.size(); i++) {
+                films.get(i).setId(ids.get(i));
             }
+            saveGenres(films);
+        });
+        films.forEach(film -> eventPublisher.publishEvent(FilmSavedEvent.of(film)));
+        return films;
+    }
 
-            @Override
-            public int getBatchSize() {
-                return genres.size();
-            }
+    private void saveGenres(List<Film> films) {
+        String sql = "INSERT INTO film_genre (film_id, genre_id) VALUES (?,?);";
+        List<long[]> rows = films.stream()
+                .flatMap(film -> film.getGenres().stream()
+                        .map(Genre::getId)
+                        .distinct()
+                        .map(genreId -> new long[]{film.getId(), genreId}))
+                .toList();
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row[0]);
+            ps.setLong(2, row[1]);
         });
     }
 
@@ -86,71 +241,86 @@ public class FilmRepository extends BaseRepository<Film> implements FilmStorage
                 SET name = ?, description = ?, release_date = ?, duration = ?, mpa_rating_id = ?
                 WHERE id = ?;
                 """;
-        update(sql, film.getName(), film.getDescription(), film.getReleaseDate(),
-                film.getDuration(), film.getMpa().getId(), film.getId());
-        updateGenres(film);
+        // Строка фильма заблокирована до коммита, поэтому параллельные правки одного фильма не смешивают жанры
+        transactionTemplate.executeWithoutResult(status -> {
+            update(sql, film.getName(), film.getDescription(), film.getReleaseDate(),
+                    film.getDuration(), film.getMpa().getId(), film.getId());
+            updateGenres(film);
+        });
+        eventPublisher.publishEvent(FilmSavedEvent.of(film));
         return film;
     }
 
+    /**
+     * Applies only the difference between stored and requested genres: one {@code MERGE} row per
+     * changed genre, sent as a single batch. Unchanged genres are not touched.
+     */
     private void updateGenres(Film film) {
         String sql = """
-                DELETE FROM film_genre
-                WHERE film_id = ?;
+                MERGE INTO film_genre AS fg
+                USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BOOLEAN))) AS v (film_id, genre_id, keep)
+                ON fg.film_id = v.film_id AND fg.genre_id = v.genre_id
+                WHEN MATCHED AND NOT v.keep THEN DELETE
+                WHEN NOT MATCHED AND v.keep THEN INSERT (film_id, genre_id) VALUES (v.film_id, v.genre_id);
                 """;
-        update(sql, film.getId());
-        saveGenres(film);
+        Set<Long> stored = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT genre_id FROM film_genre WHERE film_id = ?;", Long.class, film.getId()));
+        Set<Long> requested = new LinkedHashSet<>();
+        film.getGenres().forEach(genre -> requested.add(genre.getId()));
+        List<Object[]> changes = new ArrayList<>();
+        for (Long genreId : stored) {
+            if (!requested.contains(genreId)) {
+                changes.add(new Object[]{film.getId(), genreId, false});
+            }
+        }
+        for (Long genreId : requested) {
+            if (!stored.contains(genreId)) {
+                changes.add(new Object[]{film.getId(), genreId, true});
+            }
+        }
+        if (!changes.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, changes);
+        }
     }
 
-    public Collection<Film> getTop(int count) {
-        String sql = """
-                SELECT f2.*
-                FROM (
-                         SELECT film_id, COUNT(*) as c
-                         FROM `like`
-                         GROUP BY film_id
-                     ) as f1
-                         INNER JOIN film as f2 ON f1.film_id = f2.id
-                ORDER BY f1.c DESC
-                LIMIT ? ;
-                """;
-        return findMany(sql, filmRowMapper, count);
+    @Override
+    public Collection<Film> getTop(int count, Long genreId, Integer year) {
+        return findByIds(leaderboard.top(count, genreId, year));
     }
 
-    public Collection<Film> findAll2() {
-        String sql = """
-                SELECT f.id AS film_id, f.name, f.description, f.release_date, f.duration,
-                                f.mpa_rating_id, mp.NAME as mpa_name, mp.DESCRIPTION as mpa_description,
-                                g.id AS genre_id, g.name AS genre_name
-                FROM FILM f
-                    LEFT JOIN FILM_GENRE fg ON f.id = fg.film_id
-                    LEFT JOIN GENRE g ON fg.genre_id = g.id
-                    LEFT JOIN MPA_RATING as mp ON f.MPA_RATING_ID = mp.ID;
-                """;
-        List<Object[]> rows = jdbcTemplate.query(sql, (rs, rowNum) -> new Object[]{
-                new FilmRowMapper2().mapRow(rs, rowNum),
-                new GenreRowMapper2().mapRow(rs, rowNum),
-                new MpaRowMapper2().mapRow(rs, rowNum)
-        });
-
-        // Группируем фильмы по ID
-        Map<Long, Film> filmMap = new HashMap<>();
-
-        for (Object[] row : rows) {
-            Film film = (Film) row[0];
-            Genre genre = (Genre) row[1];
-            Mpa mpa = (Mpa) row[2];
-            film.setMpa(mpa);
+    @Override
+    public List<Film> findByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String in = "(" + placeholders(ids.size()) + ")";
+        Object[] params = ids.toArray();
+        Map<Long, Film> films = new HashMap<>();
+        for (Film film : findMany(SELECT_FILMS + "WHERE f.id IN " + in + ";", filmRowMapper, params)) {
+            films.put(film.getId(), film);
+        }
+        loadGenres(films, SELECT_FILM_GENRES + "WHERE fg.film_id IN " + in + " ORDER BY fg.genre_id;", params);
+        return ids.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
 
-            if (!filmMap.containsKey(film.getId())) {
-                filmMap.put(film.getId(), film);
-                film.setGenres(new HashSet<>());
+    private void loadGenres(Map<Long, Film> films, String sql, Object... params) {
+        jdbcTemplate.query(sql, rs -> {
+            Film film = films.get(rs.getLong("film_id"));
+            if (film != null) {
+                film.getGenres().add(findGenre(rs.getLong("genre_id")));
             }
+        }, params);
+    }
 
-            if (genre != null) {
-                filmMap.get(film.getId()).getGenres().add(genre);
-            }
+    private Genre findGenre(long genreId) {
+        Genre genre = genreRepository.findById(genreId);
+        if (genre == null) {
+            genre = new Genre();
+            genre.setId(genreId);
         }
-
-        return new ArrayList<>(filmMap.values());
+        return genre;
     }
 }
@@ -1,41 +1,44 @@
 package ru.yandex.practicum.filmorate.storage.repository;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceCache;
 import ru.yandex.practicum.filmorate.storage.mapper.GenreRowMapper;
 
 import java.util.Collection;
 
 @Repository
+@Timed(value = "filmorate.repository", histogram = true)
 @Slf4j
 public class GenreRepository extends BaseRepository<Genre> {
-    private final GenreRowMapper genreRowMapper;
+    private static final String SELECT_ALL = "SELECT * FROM genre ORDER BY id;";
+
+    private final ReferenceCache<Genre> cache;
 
     public GenreRepository(JdbcTemplate jdbcTemplate, GenreRowMapper genreRowMapper) {
         super(jdbcTemplate);
-        this.genreRowMapper = genreRowMapper;
+        this.cache = new ReferenceCache<>("genre", () -> jdbcTemplate.query(SELECT_ALL, genreRowMapper),
+                Genre::getId);
     }
 
-    public Collection<Genre> findAll() {
-        String sql = "SELECT * FROM genre;";
-        return findMany(sql, genreRowMapper);
+    @PostConstruct
+    public void refresh() {
+        cache.refresh();
     }
 
-    public Genre findById(long id) {
-        String sql = "SELECT * FROM genre WHERE id = ?;";
-        return findOne(sql, genreRowMapper, id);
+    public ReferenceCache<Genre> getCache() {
+        return cache;
     }
 
-    public Collection<Genre> findByFilmId(long filmId) {
-        String sql = """
-                SELECT g.id, g.name
-                FROM film_genre as fg
-                INNER JOIN genre as g ON fg.genre_id = g.id
-                WHERE fg.film_id = ?
-                ORDER BY g.id ASC;
-                """;
-        return findMany(sql, genreRowMapper, filmId);
+    public Collection<Genre> findAll() {
+        return cache.findAll();
+    }
+
+    public Genre findById(long id) {
+        return cache.findById(id);
     }
 }
@@ -1,24 +1,115 @@
 package ru.yandex.practicum.filmorate.storage.repository;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Repository
+@Profile("!in-memory")
+@Timed(value = "filmorate.repository", histogram = true)
 @Slf4j
-public class LikeRepository extends BaseRepository<Long> {
-    public LikeRepository(JdbcTemplate jdbcTemplate) {
+public class LikeRepository extends BaseRepository<Long> implements LikeStorage {
+    private final FilmLeaderboard leaderboard;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public LikeRepository(JdbcTemplate jdbcTemplate, FilmLeaderboard leaderboard,
+                          ApplicationEventPublisher eventPublisher) {
         super(jdbcTemplate);
+        this.leaderboard = leaderboard;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void loadLeaderboard() {
+        String sql = "SELECT film_id, COUNT(*) AS likes FROM `like` GROUP BY film_id;";
+        Map<Long, Long> likesByFilm = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            likesByFilm.put(rs.getLong("film_id"), rs.getLong("likes"));
+        });
+        leaderboard.rebuild(likesByFilm);
     }
 
-    public void addLike(final Long userId, final Long filmId) {
-        String sql = "INSERT INTO `like` (user_id, film_id) VALUES (?, ?)";
+    @Override
+    public boolean addLike(final Long userId, final Long filmId) {
+        String sql = """
+                MERGE INTO `like` AS l
+                USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) AS v (user_id, film_id)
+                ON l.user_id = v.user_id AND l.film_id = v.film_id
+                WHEN NOT MATCHED THEN INSERT (user_id, film_id) VALUES (v.user_id, v.film_id);
+                """;
+        try {
+            if (!merge(sql, userId, filmId)) {
+                return false;
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Нарушен внешний ключ: isLiked выбросит NotFoundException для отсутствующей стороны
+            isLiked(userId, filmId);
+            throw e;
+        }
         log.info("Adding like to user {} and film {}", userId, filmId);
-        insertMultipleKeys(sql, userId, filmId);
+        eventPublisher.publishEvent(new LikeChangedEvent(userId, filmId, true));
+        return true;
     }
 
-    public void removeLike(final Long userId, final Long filmId) {
+    @Override
+    public boolean removeLike(final Long userId, final Long filmId) {
         String sql = "DELETE FROM `like` WHERE user_id = ? AND film_id = ?";
-        delete(sql, userId, filmId);
+        if (!delete(sql, userId, filmId)) {
+            return false;
+        }
+        eventPublisher.publishEvent(new LikeChangedEvent(userId, filmId, false));
+        return true;
+    }
+
+    @Override
+    public void streamAll(Consumer<Like> consumer) {
+        String sql = "SELECT user_id, film_id FROM `like`;";
+        stream(sql, rs -> consumer.accept(new Like(rs.getLong("user_id"), rs.getLong("film_id"))));
+    }
+
+    public boolean isLiked(long userId, long filmId) {
+        String sql = """
+                SELECT EXISTS(SELECT 1 FROM `user` WHERE id = ?) AS user_exists,
+                       EXISTS(SELECT 1 FROM film WHERE id = ?) AS film_exists,
+                       EXISTS(SELECT 1 FROM `like` WHERE user_id = ? AND film_id = ?) AS liked;
+                """;
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, (rs, rowNum) -> {
+            if (!rs.getBoolean("user_exists")) {
+                throw new NotFoundException("User with id " + userId + " not found");
+            }
+            if (!rs.getBoolean("film_exists")) {
+                throw new NotFoundException("Film with id " + filmId + " not found");
+            }
+            return rs.getBoolean("liked");
+        }, userId, filmId, userId, filmId));
+    }
+
+    public void saveLikes(Collection<Like> likes) {
+        String sql = "MERGE INTO `like` (user_id, film_id) KEY (user_id, film_id) VALUES (?, ?);";
+        jdbcTemplate.batchUpdate(sql, likes.stream()
+                .map(like -> new Object[]{like.userId(), like.filmId()})
+                .toList());
+    }
+
+    public void deleteLikes(Collection<Like> likes) {
+        String sql = "DELETE FROM `like` WHERE user_id = ? AND film_id = ?;";
+        jdbcTemplate.batchUpdate(sql, likes.stream()
+                .map(like -> new Object[]{like.userId(), like.filmId()})
+                .toList());
     }
 }
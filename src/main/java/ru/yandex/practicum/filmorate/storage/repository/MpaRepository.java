@@ -1,30 +1,44 @@
 package ru.yandex.practicum.filmorate.storage.repository;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.cache.ReferenceCache;
 import ru.yandex.practicum.filmorate.storage.mapper.MpaRowMapper;
 
 import java.util.Collection;
 
 @Repository
+@Timed(value = "filmorate.repository", histogram = true)
 @Slf4j
 public class MpaRepository extends BaseRepository<Mpa> {
-    private final MpaRowMapper mpaRowMapper;
+    private static final String SELECT_ALL = "SELECT * FROM mpa_rating ORDER BY id;";
+
+    private final ReferenceCache<Mpa> cache;
 
     public MpaRepository(JdbcTemplate jdbcTemplate, MpaRowMapper mpaRowMapper) {
         super(jdbcTemplate);
-        this.mpaRowMapper = mpaRowMapper;
+        this.cache = new ReferenceCache<>("mpa", () -> jdbcTemplate.query(SELECT_ALL, mpaRowMapper),
+                Mpa::getId);
+    }
+
+    @PostConstruct
+    public void refresh() {
+        cache.refresh();
+    }
+
+    public ReferenceCache<Mpa> getCache() {
+        return cache;
     }
 
     public Collection<Mpa> findAll() {
-        String sql = "SELECT * FROM mpa_rating;";
-        return findMany(sql, mpaRowMapper);
+        return cache.findAll();
     }
 
     public Mpa findById(long id) {
-        String sql = "SELECT * FROM mpa_rating WHERE id = ?;";
-        return findOne(sql, mpaRowMapper, id);
+        return cache.findById(id);
     }
 }
@@ -1,22 +1,56 @@
 package ru.yandex.practicum.filmorate.storage.repository;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FriendGraph;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 import ru.yandex.practicum.filmorate.storage.mapper.UserRowMapper;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 @Repository
+@Profile("!in-memory")
+@Timed(value = "filmorate.repository", histogram = true)
 @Slf4j
 public class UserRepository extends BaseRepository<User> implements UserStorage {
+    private static final String INSERT_USER = "INSERT INTO `user` (email, login, name, birthdate) VALUES (?, ?, ?, ?);";
+
     private final UserRowMapper userRowMapper;
+    private final FriendGraph friendGraph;
+    private final TransactionTemplate transactionTemplate;
 
-    public UserRepository(JdbcTemplate jdbcTemplate) {
+    public UserRepository(JdbcTemplate jdbcTemplate, FriendGraph friendGraph,
+                          PlatformTransactionManager transactionManager) {
         super(jdbcTemplate);
         this.userRowMapper = new UserRowMapper();
+        this.friendGraph = friendGraph;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void loadFriendGraph() {
+        Map<Long, List<Long>> friendsByUser = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, friend_id FROM friend;", rs -> {
+            friendsByUser.computeIfAbsent(rs.getLong("user_id"), id -> new ArrayList<>())
+                    .add(rs.getLong("friend_id"));
+        });
+        friendGraph.rebuild(friendsByUser);
     }
 
     @Override
@@ -31,14 +65,39 @@ public class UserRepository extends BaseRepository<User> implements UserStorage
         return findMany(sql, userRowMapper);
     }
 
+    @Override
+    public List<User> findPage(long afterId, int limit) {
+        String sql = "SELECT * FROM `user` WHERE id > ? ORDER BY id LIMIT ?;";
+        return jdbcTemplate.query(sql, userRowMapper, afterId, limit);
+    }
+
+    @Override
+    public void streamAll(long afterId, Consumer<User> consumer) {
+        String sql = "SELECT * FROM `user` WHERE id > ? ORDER BY id;";
+        stream(sql, rs -> consumer.accept(userRowMapper.mapRow(rs, rs.getRow())), afterId);
+    }
+
     @Override
     public User create(User user) {
-        String sql = "INSERT INTO `user` (email, login, name, birthdate) VALUES (?, ?, ?, ?);";
-        long userId = insert(sql, user.getEmail(), user.getLogin(), user.getName(), user.getBirthday());
+        long userId = insert(INSERT_USER, user.getEmail(), user.getLogin(), user.getName(), user.getBirthday());
         user.setId(userId);
         return user;
     }
 
+    @Override
+    public List<User> createAll(List<User> users) {
+        List<Long> ids = transactionTemplate.execute(status -> insertAll(INSERT_USER, users, (ps, user) -> {
+            ps.setString(1, user.getEmail());
+            ps.setString(2, user.getLogin());
+            ps.setString(3, user.getName());
+            ps.setObject(4, user.getBirthday());
+        }));
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId(ids.get(i));
+        }
+        return users;
+    }
+
     @Override
     public User update(User user) {
         String sql = "UPDATE `user` SET email = ?, login = ?, name = ?, birthdate = ? WHERE id = ?;";
@@ -46,31 +105,82 @@ public class UserRepository extends BaseRepository<User> implements UserStorage
         return user;
     }
 
-    public void addFriend(Long userId, Long friendUserId) {
-        String sql = "INSERT INTO friend (user_id, friend_id) VALUES (?, ?);";
-        insertMultipleKeys(sql, userId, friendUserId);
+    @Override
+    public boolean addFriend(Long userId, Long friendUserId) {
+        if (friendGraph.contains(userId, friendUserId)) {
+            return false;
+        }
+        String sql = """
+                MERGE INTO friend AS f
+                USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) AS v (user_id, friend_id)
+                ON f.user_id = v.user_id AND f.friend_id = v.friend_id
+                WHEN NOT MATCHED THEN INSERT (user_id, friend_id) VALUES (v.user_id, v.friend_id);
+                """;
+        boolean inserted;
+        try {
+            inserted = merge(sql, userId, friendUserId);
+        } catch (DataIntegrityViolationException e) {
+            // Нарушен внешний ключ: одного из пользователей нет
+            throw new NotFoundException("User not found");
+        }
+        // Граф мог отстать от таблицы, поэтому добавляем и при совпадении строки
+        friendGraph.add(userId, friendUserId);
+        return inserted;
     }
 
-    public void removeFriend(Long userId, Long friendUserId) {
+    @Override
+    public boolean removeFriend(Long userId, Long friendUserId) {
         String sql = "DELETE FROM friend WHERE user_id = ? AND friend_id = ?;";
-        delete(sql, userId, friendUserId);
+        if (delete(sql, userId, friendUserId)) {
+            friendGraph.remove(userId, friendUserId);
+            return true;
+        }
+        requireExists(userId);
+        requireExists(friendUserId);
+        return false;
     }
 
+    @Override
     public Collection<User> getFriends(Long userId) {
-        String sql = "SELECT * FROM `user` WHERE id IN (SELECT friend_id FROM friend WHERE user_id = ?);";
-        return findMany(sql, userRowMapper, userId);
+        long[] friendIds = friendGraph.friends(userId);
+        if (friendIds.length == 0) {
+            requireExists(userId);
+        }
+        return findByIds(friendIds);
     }
 
+    @Override
     public Collection<User> getCommonFriends(Long userId, Long otherUserId) {
-        String sql = """
-                SELECT * FROM `user` WHERE id IN (
-                    SELECT friend_id
-                    FROM friend WHERE user_id = ?
-                    INTERSECT
-                    SELECT friend_id
-                    FROM friend WHERE user_id = ?);
-                """;
-        return findMany(sql, userRowMapper, userId, otherUserId);
+        return findByIds(friendGraph.commonFriends(userId, otherUserId));
     }
 
+    @Override
+    public List<User> getSuggestedFriends(Long userId, int limit) {
+        long[] suggestedIds = friendGraph.suggestions(userId, limit);
+        if (suggestedIds.length == 0) {
+            requireExists(userId);
+        }
+        return findByIds(suggestedIds);
+    }
+
+    private List<User> findByIds(long[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        String sql = "SELECT * FROM `user` WHERE id IN (" + placeholders(ids.length) + ");";
+        Map<Long, User> users = new HashMap<>();
+        for (User user : findMany(sql, userRowMapper, Arrays.stream(ids).boxed().toArray())) {
+            users.put(user.getId(), user);
+        }
+        return Arrays.stream(ids)
+                .mapToObj(users::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private void requireExists(Long userId) {
+        if (findById(userId) == null) {
+            throw new NotFoundException(String.format("User with id '%s' not found", userId));
+        }
+    }
 }
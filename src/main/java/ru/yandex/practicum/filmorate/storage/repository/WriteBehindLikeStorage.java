@@ -0,0 +1,228 @@
+package ru.yandex.practicum.filmorate.storage.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Acknowledges likes as soon as they are queued and writes them to the database in batches.
+ * <p>
+ * The latest queued state of every (user, film) pair is kept in {@code pending} until it is
+ * flushed, so repeated likes are recognised as no-ops and {@link LikeChangedEvent} is published at
+ * acknowledgement time. When the queue is full the calling thread flushes it itself.
+ * <p>
+ * Acknowledged likes are never dropped: a batch that fails to write is kept and retried before
+ * anything newer, with the scheduled flush backing off exponentially while the database fails.
+ */
+@Component
+@Primary
+@Profile("!in-memory")
+@ConditionalOnProperty(name = "filmorate.likes.write-behind.enabled", havingValue = "true")
+@Slf4j
+public class WriteBehindLikeStorage implements LikeStorage {
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    private final LikeRepository likeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final BlockingQueue<Event> queue;
+    private final Map<Like, Event> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicLong flushes = new AtomicLong();
+    private final List<Event> failed = new ArrayList<>();
+    private long retryDelayMillis;
+    private volatile long nextRetryAt;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "like-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WriteBehindLikeStorage(LikeRepository likeRepository, ApplicationEventPublisher eventPublisher,
+                                  @Value("${filmorate.likes.write-behind.capacity:10000}") int capacity,
+                                  @Value("${filmorate.likes.write-behind.batch-size:500}") int batchSize,
+                                  @Value("${filmorate.likes.write-behind.flush-interval:PT0.2S}")
+                                  Duration flushInterval) {
+        this.likeRepository = likeRepository;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Write-behind for likes enabled: batch size {}, flush interval {}", batchSize, flushInterval);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(flushInterval.toMillis() * 10, TimeUnit.MILLISECONDS);
+        flush();
+        log.info("Write-behind for likes stopped, queue flushed");
+    }
+
+    @Override
+    public boolean addLike(final Long userId, final Long filmId) {
+        return submit(new Like(userId, filmId), true);
+    }
+
+    @Override
+    public boolean removeLike(final Long userId, final Long filmId) {
+        return submit(new Like(userId, filmId), false);
+    }
+
+    @Override
+    public void streamAll(Consumer<Like> consumer) {
+        flush();
+        likeRepository.streamAll(consumer);
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            // Сначала повторяем упавший пакет: его события старше всего, что лежит в очереди
+            if (!failed.isEmpty()) {
+                write(failed);
+                failed.clear();
+            }
+            List<Event> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                try {
+                    write(batch);
+                } catch (RuntimeException e) {
+                    failed.addAll(batch);
+                    throw e;
+                }
+                batch.clear();
+            }
+            retryDelayMillis = 0;
+            nextRetryAt = 0;
+        } catch (RuntimeException e) {
+            retryDelayMillis = Math.min(Math.max(retryDelayMillis * 2, flushInterval.toMillis()),
+                    MAX_RETRY_DELAY_MILLIS);
+            nextRetryAt = System.currentTimeMillis() + retryDelayMillis;
+            throw e;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean submit(Like like, boolean liked) {
+        while (true) {
+            // Состояние в БД читаем до compute, чтобы не держать блокировку корзины на время запроса
+            long flushesBefore = flushes.get();
+            boolean stored = !pending.containsKey(like) && likeRepository.isLiked(like.userId(), like.filmId());
+            Event[] queued = new Event[1];
+            boolean[] rejected = new boolean[1];
+            boolean[] stale = new boolean[1];
+            pending.compute(like, (key, last) -> {
+                if (last == null && flushes.get() != flushesBefore) {
+                    stale[0] = true;
+                    return null;
+                }
+                boolean current = last != null ? last.liked : stored;
+                if (current == liked) {
+                    return last;
+                }
+                Event event = new Event(key, liked);
+                if (!queue.offer(event)) {
+                    rejected[0] = true;
+                    return last;
+                }
+                queued[0] = event;
+                return event;
+            });
+            if (stale[0]) {
+                continue;
+            }
+            if (!rejected[0]) {
+                if (queued[0] != null) {
+                    onQueued(queued[0]);
+                }
+                return queued[0] != null;
+            }
+            flush();
+        }
+    }
+
+    private void onQueued(Event event) {
+        eventPublisher.publishEvent(new LikeChangedEvent(event.like.userId(), event.like.filmId(), event.liked));
+        if (queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    private void flushQuietly() {
+        if (System.currentTimeMillis() < nextRetryAt) {
+            return;
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush likes", e);
+        }
+    }
+
+    private void write(List<Event> batch) {
+        // Для каждой пары пользователь-фильм важно только последнее событие
+        Map<Like, Event> latest = new LinkedHashMap<>();
+        batch.forEach(event -> latest.put(event.like, event));
+        List<Like> added = new ArrayList<>();
+        List<Like> removed = new ArrayList<>();
+        latest.values().forEach(event -> (event.liked ? added : removed).add(event.like));
+        try {
+            likeRepository.saveLikes(added);
+            likeRepository.deleteLikes(removed);
+        } catch (RuntimeException e) {
+            log.error("Failed to write {} like events, keeping them for retry", batch.size(), e);
+            throw e;
+        }
+        batch.forEach(event -> pending.remove(event.like, event));
+        flushes.incrementAndGet();
+        log.debug("Flushed {} likes and {} unlikes", added.size(), removed.size());
+    }
+
+    private static final class Event {
+        private final Like like;
+        private final boolean liked;
+
+        private Event(Like like, boolean liked) {
+            this.like = like;
+            this.liked = liked;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package ru.yandex.practicum.filmorate.storage.search;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.event.FilmSavedEvent;
+import ru.yandex.practicum.filmorate.storage.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index over film titles and descriptions.
+ * <p>
+ * Every query word matches index terms exactly, as a prefix, or with one typo (two for words of
+ * eight letters and more; the first letter has to be right). Weaker matches score less. Scores are
+ * TF-IDF per field, with titles weighted higher, scaled by the share of query words matched and
+ * boosted by the film's like count.
+ * The index is filled from storage at startup and kept current through {@link FilmSavedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FilmSearchIndex {
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_EXPANSIONS = 50;
+    private static final double PREFIX_WEIGHT = 0.7;
+    private static final double TYPO_WEIGHT = 0.5;
+    private static final double LIKES_WEIGHT = 0.1;
+
+    private final FilmStorage filmStorage;
+    private final FilmLeaderboard leaderboard;
+    private final Map<Field, FieldIndex> fields = Map.of(
+            Field.TITLE, new FieldIndex(2.0),
+            Field.DESCRIPTION, new FieldIndex(1.0));
+
+    public enum Field {
+        TITLE, DESCRIPTION
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        fields.values().forEach(FieldIndex::clear);
+        filmStorage.streamAll(0, film -> index(film.getId(), film.getName(), film.getDescription()));
+        log.info("Search index built for {} films", size());
+    }
+
+    public int size() {
+        return fields.get(Field.TITLE).documents.size();
+    }
+
+    @EventListener
+    public void onFilmSaved(FilmSavedEvent event) {
+        index(event.filmId(), event.name(), event.description());
+    }
+
+    public void index(long filmId, String name, String description) {
+        fields.get(Field.TITLE).put(filmId, name);
+        fields.get(Field.DESCRIPTION).put(filmId, description);
+    }
+
+    /**
+     * Ids of the best matching films, most relevant first.
+     */
+    public List<Long> search(String query, Collection<Field> searchFields, int limit) {
+        List<String> words = tokenize(query).distinct().toList();
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        Map<Long, Integer> matchedWords = new HashMap<>();
+        for (String word : words) {
+            Map<Long, Double> wordScores = new HashMap<>();
+            for (Field field : searchFields) {
+                fields.get(field).score(word, wordScores);
+            }
+            wordScores.forEach((filmId, score) -> {
+                scores.merge(filmId, score, Double::sum);
+                matchedWords.merge(filmId, 1, Integer::sum);
+            });
+        }
+        scores.replaceAll((filmId, score) -> score * matchedWords.get(filmId) / words.size()
+                * (1 + LIKES_WEIGHT * Math.log1p(leaderboard.likes(filmId))));
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    static Stream<String> tokenize(String text) {
+        if (text == null) {
+            return Stream.empty();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).replace('ё', 'е').split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty());
+    }
+
+    /**
+     * Levenshtein distance, or {@code max + 1} as soon as it is known to exceed {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class FieldIndex {
+        private final double weight;
+        private final ConcurrentNavigableMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+        private final Map<Long, Map<String, Integer>> documents = new ConcurrentHashMap<>();
+
+        private FieldIndex(double weight) {
+            this.weight = weight;
+        }
+
+        void clear() {
+            postings.clear();
+            documents.clear();
+        }
+
+        void put(long filmId, String text) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            tokenize(text).forEach(word -> frequencies.merge(word, 1, Integer::sum));
+            documents.compute(filmId, (id, previous) -> {
+                // Пустые списки не удаляются: поток, уже взявший список из computeIfAbsent, иначе
+                // дописал бы фильм в список, которого больше нет в индексе
+                if (previous != null) {
+                    previous.keySet().forEach(term -> {
+                        Map<Long, Integer> films = postings.get(term);
+                        if (films != null) {
+                            films.remove(id);
+                        }
+                    });
+                }
+                frequencies.forEach((term, count) ->
+                        postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(id, count));
+                return frequencies;
+            });
+        }
+
+        void score(String word, Map<Long, Double> scores) {
+            add(postings.get(word), 1.0, scores);
+            if (word.length() >= MIN_PREFIX_LENGTH) {
+                postings.subMap(word, false, word + Character.MAX_VALUE, false).values().stream()
+                        .filter(films -> !films.isEmpty())
+                        .limit(MAX_EXPANSIONS)
+                        .forEach(films -> add(films, PREFIX_WEIGHT, scores));
+            }
+            if (word.length() >= MIN_FUZZY_LENGTH) {
+                int maxEdits = word.length() >= 8 ? 2 : 1;
+                String first = word.substring(0, 1);
+                int expansions = 0;
+                // Опечатки ищем среди терминов на ту же букву
+                for (Map.Entry<String, Map<Long, Integer>> entry
+                        : postings.subMap(first, first + Character.MAX_VALUE).entrySet()) {
+                    String term = entry.getKey();
+                    if (term.startsWith(word) || entry.getValue().isEmpty()) {
+                        continue;
+                    }
+                    int edits = distance(word, term, maxEdits);
+                    if (edits <= maxEdits) {
+                        add(entry.getValue(), TYPO_WEIGHT / edits, scores);
+                        if (++expansions >= MAX_EXPANSIONS) {
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        private void add(Map<Long, Integer> films, double matchWeight, Map<Long, Double> scores) {
+            if (films == null || films.isEmpty()) {
+                return;
+            }
+            double idf = Math.log(1 + (double) documents.size() / films.size());
+            films.forEach((filmId, frequency) ->
+                    scores.merge(filmId, weight * matchWeight * idf * (1 + Math.log(frequency)), Math::max));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+-- Indexes for the lookups done by FilmRepository, GenreRepository, UserRepository and LikeRepository.
+-- spring.sql.init runs this script on every start, so every statement must be idempotent.
+
+-- film_genre: genres of a film (film_id = ?, film_id IN (...), range by film_id) and films of a genre
+DELETE FROM film_genre AS fg
+WHERE EXISTS(SELECT 1
+             FROM film_genre AS d
+             WHERE d.film_id = fg.film_id
+               AND d.genre_id = fg.genre_id
+               AND d.id < fg.id);
+ALTER TABLE film_genre ADD CONSTRAINT IF NOT EXISTS film_genre_film_genre_uq UNIQUE (film_id, genre_id);
+CREATE INDEX IF NOT EXISTS film_genre_genre_film_idx ON film_genre (genre_id, film_id);
+
+-- friend: PRIMARY KEY (user_id, friend_id) covers friends of a user, this one covers who added a user
+CREATE INDEX IF NOT EXISTS friend_friend_user_idx ON friend (friend_id, user_id);
+
+-- like: PRIMARY KEY (user_id, film_id) covers likes of a user, this one covers likes of a film
+CREATE INDEX IF NOT EXISTS like_film_user_idx ON `like` (film_id, user_id);
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Primary and replica are two independent in-memory H2 databases, so a read that reaches
+ * the replica does not see rows written through the primary.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+		"filmorate.replica.sticky-for=PT1M"
+})
+@ActiveProfiles("replica")
+class ReplicaRoutingTests {
+
+	@Test
+	void routesReadsToReplicaAndOwnWritesToPrimary(@Autowired FilmService filmService,
+												   @Autowired UserService userService) {
+		Mpa mpa = new Mpa();
+		mpa.setId(1);
+		Film film = new Film();
+		film.setName("Primary only");
+		film.setDescription("Written through the primary pool");
+		film.setReleaseDate(LocalDate.of(2001, 1, 1));
+		film.setDuration(100);
+		film.setMpa(mpa);
+		filmService.create(film);
+		User user = userService.create(user("reader"));
+		User friend = userService.create(user("friend"));
+
+		assertThat(filmService.findPage(0, 10)).isEmpty();
+		// Тело с ETag читается с основной БД
+		assertThat(filmService.findById(film.getId()).getName()).isEqualTo("Primary only");
+		assertThat(userService.findAll()).isEmpty();
+
+		userService.addFriend(user.getId(), friend.getId());
+
+		assertThat(userService.getFriends(user.getId()))
+				.extracting(User::getId)
+				.containsExactly(friend.getId());
+	}
+
+	private static User user(String login) {
+		User user = new User();
+		user.setEmail(login + "@mail.ru");
+		user.setLogin(login);
+		user.setBirthday(LocalDate.of(1990, 1, 1));
+		return user;
+	}
+}
@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.actuator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ApplicationMetricsTest {
+    private final DataSource dataSource;
+    private final FilmService filmService;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    void exposesConnectionPoolMetrics() throws Exception {
+        try (Connection ignored = dataSource.getConnection()) {
+            assertThat(meterRegistry.get("hikaricp.connections.active")
+                    .tag("pool", "filmorate-pool").gauge().value()).isGreaterThanOrEqualTo(1);
+        }
+        assertThat(meterRegistry.find("hikaricp.connections.idle").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.pending").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.acquire").timer()).isNotNull();
+    }
+
+    @Test
+    void timesServiceAndRepositoryCalls() {
+        long serviceCalls = timerCount("filmorate.service", "FilmService");
+        long repositoryCalls = timerCount("filmorate.repository", "FilmRepository");
+
+        filmService.findPage(0, 10);
+
+        assertThat(timerCount("filmorate.service", "FilmService")).isEqualTo(serviceCalls + 1);
+        assertThat(timerCount("filmorate.repository", "FilmRepository")).isEqualTo(repositoryCalls + 1);
+    }
+
+    private long timerCount(String name, String className) {
+        var timer = meterRegistry.find(name).tags("class", className, "method", "findPage").timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
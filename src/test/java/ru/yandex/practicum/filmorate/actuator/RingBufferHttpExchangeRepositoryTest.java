@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.actuator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.web.exchanges.HttpExchange;
+import org.springframework.boot.actuate.web.exchanges.Include;
+import org.springframework.boot.actuate.web.exchanges.RecordableHttpRequest;
+import org.springframework.boot.actuate.web.exchanges.RecordableHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RingBufferHttpExchangeRepositoryTest {
+
+    @AfterEach
+    void resetRequestContext() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void keepsNewestExchangesFirstWithinCapacity() {
+        RingBufferHttpExchangeRepository repository = new RingBufferHttpExchangeRepository(4, 16);
+        for (int i = 0; i < 6; i++) {
+            repository.add(exchange("/films/" + i, 1));
+        }
+
+        List<String> paths = repository.findAll().stream()
+                .map(exchange -> exchange.getRequest().getUri().getPath())
+                .toList();
+
+        assertEquals(List.of("/films/5", "/films/4", "/films/3", "/films/2"), paths);
+    }
+
+    @Test
+    void aggregatesLatencyPerRoutePattern() {
+        RingBufferHttpExchangeRepository repository = new RingBufferHttpExchangeRepository(4, 128);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/films/{id}");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        for (int millis = 1; millis <= 100; millis++) {
+            repository.add(exchange("/films/" + millis, millis));
+        }
+        RequestContextHolder.resetRequestAttributes();
+        repository.add(exchange("/missing", 7));
+
+        List<RingBufferHttpExchangeRepository.RouteLatency> latencies = repository.getRouteLatencies();
+
+        assertEquals(2, latencies.size());
+        RingBufferHttpExchangeRepository.RouteLatency films = latencies.getFirst();
+        assertEquals("/films/{id}", films.route());
+        assertEquals(100, films.count());
+        assertEquals(50, films.p50Ms());
+        assertEquals(95, films.p95Ms());
+        assertEquals(99, films.p99Ms());
+        assertEquals(100, films.maxMs());
+        assertEquals(RingBufferHttpExchangeRepository.UNKNOWN_ROUTE, latencies.get(1).route());
+    }
+
+    private static HttpExchange exchange(String path, long millis) {
+        RecordableHttpRequest request = mock(RecordableHttpRequest.class);
+        when(request.getUri()).thenReturn(URI.create("http://localhost" + path));
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getHeaders()).thenReturn(Map.of());
+        RecordableHttpResponse response = mock(RecordableHttpResponse.class);
+        when(response.getStatus()).thenReturn(200);
+        when(response.getHeaders()).thenReturn(Map.of());
+        HttpExchange.Started started = HttpExchange.start(Clock.fixed(Instant.EPOCH, ZoneOffset.UTC), request);
+        return started.finish(Clock.fixed(Instant.EPOCH.plus(Duration.ofMillis(millis)), ZoneOffset.UTC),
+                response, null, null, Set.of(Include.TIME_TAKEN));
+    }
+}
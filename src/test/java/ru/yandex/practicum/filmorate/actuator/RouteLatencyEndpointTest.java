@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.actuator;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class RouteLatencyEndpointTest {
+    private final MockMvc mockMvc;
+
+    @Test
+    void reportsLatencyPerRoutePattern() throws Exception {
+        mockMvc.perform(get("/genres/{id}", 1)).andExpect(status().isOk());
+        mockMvc.perform(get("/genres/{id}", 2)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/routelatency"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.route == '/genres/{id}')].count").value(hasItem(greaterThanOrEqualTo(2))));
+    }
+}
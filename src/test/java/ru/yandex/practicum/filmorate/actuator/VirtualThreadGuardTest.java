@@ -0,0 +1,131 @@
+package ru.yandex.practicum.filmorate.actuator;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VirtualThreadGuardTest {
+    private static final String CARRIERS = "jdk.virtualThreadScheduler.parallelism";
+
+    private final HikariDataSource pool = new HikariDataSource();
+
+    @BeforeEach
+    void setCarriers() {
+        // Настоящий планировщик свойство уже прочитал, меняется лишь число носителей, которое видит защита
+        System.setProperty(CARRIERS, "4");
+    }
+
+    @AfterEach
+    void closePool() {
+        System.clearProperty(CARRIERS);
+        pool.close();
+    }
+
+    @Test
+    void limitsRepositoryCallsOnVirtualThreadsBelowCarriers() throws Exception {
+        pool.setMaximumPoolSize(10);
+        SlowRepository repository = new SlowRepository();
+        SlowRepository guarded = guarded(guard(), repository);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                calls.add(executor.submit(guarded::call));
+            }
+            for (Future<Integer> call : calls) {
+                call.get();
+            }
+        }
+        assertEquals(3, repository.maxConcurrent.get());
+    }
+
+    @Test
+    void letsNestedRepositoryCallsReuseTheirPermit() throws Exception {
+        pool.setMaximumPoolSize(10);
+        VirtualThreadGuard guard = guard();
+        SlowRepository inner = new SlowRepository();
+        OuterRepository outer = guarded(guard, new OuterRepository(guarded(guard, inner)));
+
+        // Все разрешения заняты внешними вызовами: если бы вложенный вызов ждал своего, никто бы не завершился
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                calls.add(executor.submit(outer::call));
+            }
+            for (Future<Integer> call : calls) {
+                call.get(10, TimeUnit.SECONDS);
+            }
+        }
+        assertEquals(3, inner.maxConcurrent.get());
+    }
+
+    @Test
+    void leavesCallsUnlimitedWhenPoolsAreSmallerThanCarriers() throws Exception {
+        pool.setMaximumPoolSize(3);
+        SlowRepository repository = new SlowRepository();
+        SlowRepository guarded = guarded(guard(), repository);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                calls.add(executor.submit(guarded::call));
+            }
+            for (Future<Integer> call : calls) {
+                call.get();
+            }
+        }
+        assertEquals(8, repository.maxConcurrent.get());
+    }
+
+    private VirtualThreadGuard guard() {
+        return new VirtualThreadGuard(List.of(pool), new SimpleMeterRegistry(), Duration.ofMillis(20));
+    }
+
+    private static <T> T guarded(VirtualThreadGuard guard, T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(guard);
+        return factory.getProxy();
+    }
+
+    @Repository
+    static class SlowRepository {
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        public int call() throws InterruptedException {
+            int now = running.incrementAndGet();
+            maxConcurrent.accumulateAndGet(now, Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            return now;
+        }
+    }
+
+    @Repository
+    static class OuterRepository {
+        private final SlowRepository inner;
+
+        OuterRepository(SlowRepository inner) {
+            this.inner = inner;
+        }
+
+        public int call() throws InterruptedException {
+            return inner.call();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BatchImportEndpointTest {
+    private final MockMvc mockMvc;
+
+    @Test
+    void importsFilmsFromNdjsonAndReportsRejectedItems() throws Exception {
+        String body = """
+                {"name":"Batch one","description":"First","releaseDate":"2000-01-01","duration":90,"mpa":{"id":1}}
+                {"name":"","description":"No name","releaseDate":"2000-01-01","duration":90,"mpa":{"id":1}}
+                {"name":"Batch three","description":"Bad genre","releaseDate":"2000-01-01","duration":90,"mpa":{"id":1},"genres":[{"id":999}]}
+                {"name":"Batch four","description":"Bad duration","releaseDate":"2000-01-01","duration":"long","mpa":{"id":1}}
+                {"name":"Batch five","description":"Last","releaseDate":"2000-01-01","duration":90,"mpa":{"id":2},"genres":[{"id":1}]}
+                """;
+
+        mockMvc.perform(post("/films/batch").contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(5))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.ids.length()").value(2))
+                .andExpect(jsonPath("$.errors[*].index").value(contains(1, 2, 3)));
+    }
+}
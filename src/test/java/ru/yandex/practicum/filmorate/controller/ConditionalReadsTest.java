@@ -0,0 +1,116 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.repository.GenreRepository;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ConditionalReadsTest {
+    private final MockMvc mockMvc;
+    private final FilmService filmService;
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final GenreRepository genreRepository;
+
+    @Test
+    void answersConditionalReadsWithNotModified() throws Exception {
+        Film film = createFilm("Conditional");
+        User user = new User();
+        user.setEmail("etag@mail.ru");
+        user.setLogin("etag");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        userService.create(user);
+
+        String etag = mockMvc.perform(get("/films/{id}", film.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/films/{id}", film.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        double noops = noopLikes();
+        filmService.addLike(user.getId(), film.getId());
+        filmService.addLike(user.getId(), film.getId());
+        assertThat(noopLikes()).isEqualTo(noops + 1);
+        mockMvc.perform(get("/films/{id}", film.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        String genresEtag = mockMvc.perform(get("/genres"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/genres").header("If-None-Match", genresEtag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/genres/1").header("If-None-Match", genresEtag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void answersMissingFilmWithNotFoundDespiteValidators() throws Exception {
+        Film film = createFilm("Validators");
+        String etag = mockMvc.perform(get("/films/{id}", film.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+        String lastModified = mockMvc.perform(get("/films/{id}", film.getId()))
+                .andReturn().getResponse().getHeader("Last-Modified");
+
+        mockMvc.perform(get("/films/{id}", film.getId() + 1000).header("If-None-Match", etag))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/films/{id}", film.getId() + 1000).header("If-Modified-Since", lastModified))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void changesFilmTagWhenReferenceDataChanges() throws Exception {
+        Film film = createFilm("References");
+        String etag = mockMvc.perform(get("/films/{id}", film.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        try {
+            jdbcTemplate.update("INSERT INTO genre (id, name) VALUES (100, 'Вестерн');");
+            genreRepository.refresh();
+            mockMvc.perform(get("/films/{id}", film.getId()).header("If-None-Match", etag))
+                    .andExpect(status().isOk());
+        } finally {
+            jdbcTemplate.update("DELETE FROM genre WHERE id = 100;");
+            genreRepository.refresh();
+        }
+    }
+
+    private Film createFilm(String name) {
+        Mpa mpa = new Mpa();
+        mpa.setId(1);
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Film for conditional requests");
+        film.setReleaseDate(LocalDate.of(2001, 1, 1));
+        film.setDuration(100);
+        film.setMpa(mpa);
+        return filmService.create(film);
+    }
+
+    private double noopLikes() {
+        var counter = meterRegistry.find("filmorate.writes").tags("operation", "like.add", "outcome", "noop").counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncLogbookSinkTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void keepsErrorsSamplesOthersAndDropsWhenFull() throws Exception {
+        // Писатель не запущен, поэтому очередь на одну запись сразу заполняется
+        AsyncLogbookSink sink = new AsyncLogbookSink(new ObjectMapper(), meterRegistry, 1, 16, 1.0,
+                "/films/popular=0, /films/**=1");
+
+        sink.write(correlation(), request("/films/popular"), response(200));
+        sink.write(correlation(), request("/films/popular"), response(500));
+        sink.write(correlation(), request("/films/1"), response(200));
+
+        assertEquals(1, count("sampled_out"));
+        assertEquals(1, count("dropped"));
+        assertEquals(1, meterRegistry.get("filmorate.http.log.queue.size").gauge().value());
+
+        sink.stop();
+        assertEquals(1, count("written"));
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("filmorate.http.log.entries").tag("outcome", outcome).counter().count();
+    }
+
+    private static Correlation correlation() {
+        Correlation correlation = mock(Correlation.class);
+        when(correlation.getId()).thenReturn("id");
+        when(correlation.getStart()).thenReturn(Instant.EPOCH);
+        when(correlation.getDuration()).thenReturn(Duration.ofMillis(5));
+        return correlation;
+    }
+
+    private static HttpRequest request(String path) throws Exception {
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getPath()).thenReturn(path);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getRequestUri()).thenReturn("http://localhost" + path);
+        when(request.getBody()).thenReturn(new byte[0]);
+        return request;
+    }
+
+    private static HttpResponse response(int status) throws Exception {
+        HttpResponse response = mock(HttpResponse.class);
+        when(response.getStatus()).thenReturn(status);
+        when(response.getBody()).thenReturn("{\"description\":\"a long response body\"}".getBytes());
+        return response;
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class LogbookExclusionsTest {
+    private final MockMvc mockMvc;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    void keepsStreamsAndBatchBodiesOutOfHttpLog() throws Exception {
+        double before = loggedExchanges();
+        MvcResult stream = mockMvc.perform(get("/films").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(stream)).andExpect(status().isOk());
+        mockMvc.perform(post("/users/batch").contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"email\":\"log@mail.ru\",\"login\":\"log\",\"birthday\":\"1990-01-01\"}\n"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/genres")).andExpect(status().isOk());
+
+        // Журнал пишется по порядку: когда учтён последний запрос, учтены бы были и предыдущие
+        long deadline = System.currentTimeMillis() + 5000;
+        while (loggedExchanges() < before + 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(loggedExchanges()).isEqualTo(before + 1);
+    }
+
+    private double loggedExchanges() {
+        return meterRegistry.find("filmorate.http.log.entries").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+}
@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.service.ExportService;
+import ru.yandex.practicum.filmorate.storage.export.ExportFormat;
+import ru.yandex.practicum.filmorate.storage.export.ExportTable;
+import ru.yandex.practicum.filmorate.storage.repository.ExportRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({ExportRepository.class, ExportService.class})
+class ExportRepositoryTest {
+    private final ExportService exportService;
+    private final JdbcTemplate jdbcTemplate;
+
+    private long filmId;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate.update("DELETE FROM film;");
+        jdbcTemplate.update("""
+                INSERT INTO film (name, description, release_date, duration, mpa_rating_id)
+                VALUES ('Heat', 'Cops, robbers and a "last" job', '1995-12-15', 170, 4);
+                """);
+        filmId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM film;", Long.class);
+    }
+
+    @Test
+    void testExportsCsvWithHeaderAndQuoting() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(ExportTable.FILM, ExportFormat.CSV, out);
+
+        assertEquals(1, rows);
+        assertEquals(List.of(
+                "id,name,description,release_date,duration,mpa_rating_id",
+                filmId + ",Heat,\"Cops, robbers and a \"\"last\"\" job\",1995-12-15,170,4"),
+                out.toString(StandardCharsets.UTF_8).lines().toList());
+    }
+
+    @Test
+    void testExportsNdjsonWithTypedValues() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(ExportTable.FILM, ExportFormat.NDJSON, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(1, lines.size());
+        JsonNode film = new ObjectMapper().readTree(lines.getFirst());
+        assertEquals(filmId, film.get("id").asLong());
+        assertTrue(film.get("duration").isInt());
+        assertEquals("1995-12-15", film.get("release_date").asText());
+        assertEquals("Cops, robbers and a \"last\" job", film.get("description").asText());
+    }
+}
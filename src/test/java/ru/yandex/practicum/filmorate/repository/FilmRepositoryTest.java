@@ -8,7 +8,13 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.FriendGraph;
 import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
 import ru.yandex.practicum.filmorate.storage.mapper.GenreRowMapper;
 import ru.yandex.practicum.filmorate.storage.mapper.MpaRowMapper;
@@ -16,7 +22,9 @@ import ru.yandex.practicum.filmorate.storage.mapper.UserRowMapper;
 import ru.yandex.practicum.filmorate.storage.repository.*;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,18 +35,25 @@ import static org.junit.jupiter.api.Assertions.*;
 @Import({FilmRepository.class, FilmRowMapper.class,
         GenreRepository.class, GenreRowMapper.class,
         MpaRepository.class, MpaRowMapper.class,
-        LikeRepository.class,
-        UserRepository.class, UserRowMapper.class})
+        LikeRepository.class, FilmLeaderboard.class,
+        UserRepository.class, UserRowMapper.class, FriendGraph.class})
 public class FilmRepositoryTest {
     private final FilmRepository filmRepository;
     private final GenreRepository genreRepository;
     private final MpaRepository mpaRepository;
+    private final LikeRepository likeRepository;
+    private final UserRepository userRepository;
     private final JdbcTemplate jdbcTemplate;
+    private final FilmRowMapper filmRowMapper;
+    private final FilmLeaderboard leaderboard;
+    private final PlatformTransactionManager transactionManager;
 
     private Film film;
 
     @BeforeEach
     void setup() {
+        // Лидерборд общий для всех тестов, а их данные откатываются
+        likeRepository.loadLeaderboard();
         film = new Film();
         film.setName("One Flew Over the Cuckoo's Nest");
         film.setDescription("One Flew Over the Cuckoo's Nest is a novel by Ken Kesey published in 1962.");
@@ -59,7 +74,24 @@ public class FilmRepositoryTest {
         assertEquals(film.getDescription(), result.getDescription());
         assertEquals(film.getDuration(), result.getDuration());
         assertEquals(film.getReleaseDate(), result.getReleaseDate());
-        assertEquals(film.getMpa().getId(), result.getMpa().getId());
+        assertEquals(film.getMpa(), result.getMpa());
+        assertEquals(film.getGenres(), result.getGenres());
+    }
+
+    @Test
+    void testCreateAllReturnsIdsInInputOrder() {
+        Film another = new Film();
+        another.setName("Another name");
+        another.setDescription("Another description");
+        another.setReleaseDate(LocalDate.parse("2000-10-01"));
+        another.setDuration(12);
+        another.setMpa(mpaRepository.findById(2));
+        another.setGenres(Set.of(genreRepository.findById(2), genreRepository.findById(3)));
+
+        List<Film> created = filmRepository.createAll(List.of(film, another));
+
+        assertTrue(created.get(0).getId() < created.get(1).getId());
+        assertEquals(List.of(film, another), filmRepository.findByIds(List.of(film.getId(), another.getId())));
     }
 
     @Test
@@ -82,6 +114,68 @@ public class FilmRepositoryTest {
         assertTrue(created.getGenres().contains(genreRepository.findById(2)));
     }
 
+    @Test
+    void testUpdateAppliesOnlyGenreDifference() {
+        film.setGenres(Set.of(genreRepository.findById(1), genreRepository.findById(2)));
+        Film created = filmRepository.create(film);
+
+        created.setGenres(Set.of(genreRepository.findById(2), genreRepository.findById(3)));
+        filmRepository.update(created);
+        assertEquals(List.of(2L, 3L), storedGenreIds(created.getId()));
+
+        created.setGenres(Set.of());
+        filmRepository.update(created);
+        assertTrue(storedGenreIds(created.getId()).isEmpty());
+
+        // Фильм без жанров тоже обновляется
+        created.setName("Still no genres");
+        filmRepository.update(created);
+        assertEquals("Still no genres", filmRepository.findById(created.getId()).getName());
+    }
+
+    @Test
+    void testUpdateMissingFilmWritesNoGenres() {
+        Film created = filmRepository.create(film);
+        film.setId(created.getId() + 1000);
+
+        assertThrows(NotFoundException.class, () -> filmRepository.update(film));
+        assertTrue(storedGenreIds(created.getId() + 1000).isEmpty());
+    }
+
+    @Test
+    void testAggregatedGenresMatchJoinedRows() {
+        film.setGenres(Set.of(genreRepository.findById(3), genreRepository.findById(1)));
+        filmRepository.create(film);
+        Film noGenres = new Film();
+        noGenres.setName("No genres");
+        noGenres.setDescription("Film without genres");
+        noGenres.setReleaseDate(LocalDate.parse("2000-10-01"));
+        noGenres.setDuration(12);
+        noGenres.setMpa(mpaRepository.findById(1));
+        filmRepository.create(noGenres);
+        FilmRepository aggregated = new FilmRepository(jdbcTemplate, filmRowMapper, genreRepository,
+                leaderboard, event -> { }, transactionManager, true);
+
+        assertEquals(List.copyOf(filmRepository.findAll()), List.copyOf(aggregated.findAll()));
+        List<Film> joined = new ArrayList<>();
+        List<Film> streamed = new ArrayList<>();
+        filmRepository.streamAll(0, joined::add);
+        aggregated.streamAll(0, streamed::add);
+        assertEquals(joined, streamed);
+        assertEquals(List.of(1L, 3L), streamed.stream()
+                .filter(f -> f.getId().equals(film.getId()))
+                .flatMap(f -> f.getGenres().stream())
+                .map(Genre::getId)
+                .toList());
+        assertTrue(streamed.stream().filter(f -> f.getId().equals(noGenres.getId())).findFirst()
+                .orElseThrow().getGenres().isEmpty());
+    }
+
+    private List<Long> storedGenreIds(long filmId) {
+        return jdbcTemplate.queryForList("SELECT genre_id FROM film_genre WHERE film_id = ? ORDER BY genre_id;",
+                Long.class, filmId);
+    }
+
     @Test
     void testGetAllFilms() {
         filmRepository.create(film);
@@ -97,4 +191,114 @@ public class FilmRepositoryTest {
         Collection<Film> films = filmRepository.findAll();
         assertTrue(films.size() >= 2);
     }
+
+    @Test
+    void testFindPageAndStreamAll() {
+        Film first = filmRepository.create(film);
+        Film second = new Film();
+        second.setName("Second name");
+        second.setDescription("Second description");
+        second.setReleaseDate(LocalDate.parse("2001-10-01"));
+        second.setDuration(90);
+        second.setMpa(mpaRepository.findById(2));
+        second.setGenres(Set.of(genreRepository.findById(1), genreRepository.findById(2)));
+        second = filmRepository.create(second);
+
+        List<Film> page = filmRepository.findPage(first.getId() - 1, 1);
+        assertEquals(List.of(first.getId()), page.stream().map(Film::getId).toList());
+        assertEquals(film.getGenres(), page.getFirst().getGenres());
+
+        page = filmRepository.findPage(first.getId(), 10);
+        assertEquals(second.getId(), page.getFirst().getId());
+        assertEquals(2, page.getFirst().getGenres().size());
+
+        List<Film> streamed = new ArrayList<>();
+        filmRepository.streamAll(first.getId() - 1, streamed::add);
+        assertEquals(List.of(first.getId(), second.getId()), streamed.stream().map(Film::getId).toList());
+        assertEquals(second.getGenres(), streamed.get(1).getGenres());
+        assertEquals(second.getMpa(), streamed.get(1).getMpa());
+    }
+
+    @Test
+    void testGetTopOrdersByLikes() {
+        Film first = filmRepository.create(film);
+        Film second = new Film();
+        second.setName("Second name");
+        second.setDescription("Second description");
+        second.setReleaseDate(LocalDate.parse("2001-10-01"));
+        second.setDuration(90);
+        second.setMpa(mpaRepository.findById(1));
+        second.setGenres(Set.of());
+        second = filmRepository.create(second);
+
+        User alice = createUser("alice");
+        User bob = createUser("bob");
+        likeRepository.addLike(alice.getId(), second.getId());
+        likeRepository.addLike(bob.getId(), second.getId());
+        likeRepository.addLike(alice.getId(), first.getId());
+
+        List<Long> top = filmRepository.getTop(2, null, null).stream().map(Film::getId).toList();
+        assertEquals(List.of(second.getId(), first.getId()), top);
+
+        likeRepository.removeLike(alice.getId(), second.getId());
+        likeRepository.removeLike(bob.getId(), second.getId());
+        top = filmRepository.getTop(2, null, null).stream().map(Film::getId).toList();
+        assertEquals(List.of(first.getId()), top);
+    }
+
+    @Test
+    void testLikeWritesReportWhetherStateChanged() {
+        Film created = filmRepository.create(film);
+        User alice = createUser("alice");
+
+        assertTrue(likeRepository.addLike(alice.getId(), created.getId()));
+        assertFalse(likeRepository.addLike(alice.getId(), created.getId()));
+        assertTrue(likeRepository.removeLike(alice.getId(), created.getId()));
+        assertFalse(likeRepository.removeLike(alice.getId(), created.getId()));
+        assertThrows(NotFoundException.class, () -> likeRepository.addLike(alice.getId(), created.getId() + 1000));
+    }
+
+    @Test
+    void testGetTopFilteredByGenreAndYear() {
+        Film drama = filmRepository.create(film);
+        Film comedy = new Film();
+        comedy.setName("Comedy");
+        comedy.setDescription("Comedy description");
+        comedy.setReleaseDate(LocalDate.parse("1975-05-01"));
+        comedy.setDuration(90);
+        comedy.setMpa(mpaRepository.findById(1));
+        comedy.setGenres(Set.of(genreRepository.findById(2)));
+        comedy = filmRepository.create(comedy);
+
+        User alice = createUser("alice");
+        User bob = createUser("bob");
+        likeRepository.addLike(alice.getId(), comedy.getId());
+        likeRepository.addLike(bob.getId(), comedy.getId());
+        likeRepository.addLike(alice.getId(), drama.getId());
+
+        assertEquals(List.of(drama.getId()), topIds(1L, null));
+        assertEquals(List.of(comedy.getId(), drama.getId()), topIds(null, 1975));
+        assertEquals(List.of(comedy.getId()), topIds(2L, 1975));
+        assertTrue(topIds(2L, 1976).isEmpty());
+
+        comedy.setGenres(Set.of(genreRepository.findById(1)));
+        comedy.setReleaseDate(LocalDate.parse("1976-01-01"));
+        filmRepository.update(comedy);
+        assertEquals(List.of(comedy.getId(), drama.getId()), topIds(1L, null));
+        assertEquals(List.of(drama.getId()), topIds(null, 1975));
+        assertTrue(topIds(2L, null).isEmpty());
+    }
+
+    private List<Long> topIds(Long genreId, Integer year) {
+        return filmRepository.getTop(10, genreId, year).stream().map(Film::getId).toList();
+    }
+
+    private User createUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.parse("1990-01-01"));
+        return userRepository.create(user);
+    }
 }
@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.mapper.GenreRowMapper;
 import ru.yandex.practicum.filmorate.storage.repository.GenreRepository;
@@ -20,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.*;
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class GenreRepositoryTest {
     private final GenreRepository genreRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     @Test
     void testFindById() {
@@ -35,8 +37,32 @@ public class GenreRepositoryTest {
     }
 
     @Test
-    void testFindByFilmId() {
-        Collection<Genre> genres = genreRepository.findByFilmId(1);
-        assertNotNull(genres);
+    void testMissIsServedFromSnapshotUntilRefresh() {
+        jdbcTemplate.update("INSERT INTO genre (id, name) VALUES (100, 'Вестерн');");
+
+        long misses = genreRepository.getCache().getMissCount();
+        assertNull(genreRepository.findById(100));
+        assertNull(genreRepository.findById(100));
+        assertEquals(misses + 2, genreRepository.getCache().getMissCount());
+        assertTrue(genreRepository.findAll().stream().noneMatch(g -> g.getId() == 100));
+
+        genreRepository.refresh();
+        assertEquals("Вестерн", genreRepository.findById(100).getName());
+        assertEquals(misses + 2, genreRepository.getCache().getMissCount());
+
+        jdbcTemplate.update("DELETE FROM genre WHERE id = 100;");
+        genreRepository.refresh();
+        assertNull(genreRepository.findById(100));
+    }
+
+    @Test
+    void testRefreshKeepsVersionWhenUnchanged() {
+        long version = genreRepository.getCache().getVersion();
+        genreRepository.refresh();
+        assertEquals(version, genreRepository.getCache().getVersion());
+
+        jdbcTemplate.update("UPDATE genre SET name = 'Комедия!' WHERE id = 1;");
+        genreRepository.refresh();
+        assertEquals(version + 1, genreRepository.getCache().getVersion());
     }
 }
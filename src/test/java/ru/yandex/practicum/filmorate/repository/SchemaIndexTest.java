@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SchemaIndexTest {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testFilmGenresOfFilmsUseUniqueIndex() {
+        assertPlanUses("SELECT fg.film_id, fg.genre_id FROM film_genre AS fg WHERE fg.film_id IN (1, 2)",
+                "FILM_GENRE_FILM_GENRE_UQ");
+        assertPlanUses("SELECT fg.film_id, fg.genre_id FROM film_genre AS fg WHERE fg.film_id > 1 AND fg.film_id <= 5",
+                "FILM_GENRE_FILM_GENRE_UQ");
+        assertPlanUses("SELECT f.*, fg.genre_id FROM film AS f LEFT JOIN film_genre AS fg ON fg.film_id = f.id",
+                "FILM_GENRE_FILM_GENRE_UQ");
+    }
+
+    @Test
+    void testFilmsOfGenreUseGenreIndex() {
+        assertPlanUses("SELECT film_id FROM film_genre WHERE genre_id = 1", "FILM_GENRE_GENRE_FILM_IDX");
+    }
+
+    @Test
+    void testFriendAndLikeReverseLookupsUseIndexes() {
+        assertPlanUses("SELECT user_id FROM friend WHERE friend_id = 1", "FRIEND_FRIEND_USER_IDX");
+        assertPlanUses("SELECT user_id FROM `like` WHERE film_id = 1", "LIKE_FILM_USER_IDX");
+        assertPlanUses("SELECT film_id, COUNT(*) AS likes FROM `like` GROUP BY film_id", "group sorted");
+    }
+
+    @Test
+    void testDuplicatedFilmGenreIsRejected() {
+        jdbcTemplate.update("""
+                INSERT INTO film (name, description, release_date, duration, mpa_rating_id)
+                VALUES ('name', 'description', '2000-01-01', 100, 1);
+                """);
+        Long filmId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM film;", Long.class);
+        jdbcTemplate.update("INSERT INTO film_genre (film_id, genre_id) VALUES (?, 1);", filmId);
+        assertThrows(DuplicateKeyException.class,
+                () -> jdbcTemplate.update("INSERT INTO film_genre (film_id, genre_id) VALUES (?, 1);", filmId));
+    }
+
+    private void assertPlanUses(String sql, String expected) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertNotNull(plan);
+        assertTrue(plan.contains(expected), () -> "Expected " + expected + " in plan:\n" + plan);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.repository.UserRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({UserRepository.class, FriendGraph.class})
+public class UserRepositoryTest {
+    private final UserRepository userRepository;
+    private final FriendGraph friendGraph;
+
+    @Test
+    void testFriendsAndCommonFriendsSurviveReload() {
+        User alice = createUser("alice");
+        User bob = createUser("bob");
+        User carol = createUser("carol");
+        assertTrue(userRepository.addFriend(alice.getId(), carol.getId()));
+        assertTrue(userRepository.addFriend(alice.getId(), bob.getId()));
+        assertFalse(userRepository.addFriend(alice.getId(), bob.getId()));
+        userRepository.addFriend(bob.getId(), carol.getId());
+
+        assertEquals(List.of(bob, carol), userRepository.getFriends(alice.getId()));
+        assertEquals(List.of(carol), userRepository.getCommonFriends(alice.getId(), bob.getId()));
+
+        friendGraph.rebuild(Map.of());
+        assertFalse(userRepository.addFriend(alice.getId(), bob.getId()));
+        userRepository.loadFriendGraph();
+        assertTrue(userRepository.removeFriend(alice.getId(), carol.getId()));
+        assertFalse(userRepository.removeFriend(alice.getId(), carol.getId()));
+        assertEquals(List.of(bob), userRepository.getFriends(alice.getId()));
+        assertTrue(userRepository.getCommonFriends(alice.getId(), bob.getId()).isEmpty());
+    }
+
+    @Test
+    void testSuggestedFriendsAreRankedByMutualFriends() {
+        User alice = createUser("alice");
+        User bob = createUser("bob");
+        User carol = createUser("carol");
+        User dave = createUser("dave");
+        User erin = createUser("erin");
+        userRepository.addFriend(alice.getId(), bob.getId());
+        userRepository.addFriend(alice.getId(), carol.getId());
+        userRepository.addFriend(bob.getId(), erin.getId());
+        userRepository.addFriend(bob.getId(), dave.getId());
+        userRepository.addFriend(carol.getId(), erin.getId());
+
+        assertEquals(List.of(erin, dave), userRepository.getSuggestedFriends(alice.getId(), 10));
+
+        userRepository.addFriend(alice.getId(), erin.getId());
+        assertEquals(List.of(dave), userRepository.getSuggestedFriends(alice.getId(), 10));
+        assertThrows(NotFoundException.class, () -> userRepository.getSuggestedFriends(100L, 10));
+    }
+
+    @Test
+    void testUnknownUsersAreNotFound() {
+        User alice = createUser("alice");
+
+        assertThrows(NotFoundException.class, () -> userRepository.addFriend(alice.getId(), 100L));
+        assertThrows(NotFoundException.class, () -> userRepository.removeFriend(alice.getId(), 100L));
+        assertThrows(NotFoundException.class, () -> userRepository.getFriends(100L));
+        assertTrue(userRepository.getFriends(alice.getId()).isEmpty());
+    }
+
+    private User createUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.parse("1990-01-01"));
+        return userRepository.create(user);
+    }
+}
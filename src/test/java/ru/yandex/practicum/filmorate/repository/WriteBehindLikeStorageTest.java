@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.FriendGraph;
+import ru.yandex.practicum.filmorate.storage.mapper.FilmRowMapper;
+import ru.yandex.practicum.filmorate.storage.mapper.GenreRowMapper;
+import ru.yandex.practicum.filmorate.storage.mapper.MpaRowMapper;
+import ru.yandex.practicum.filmorate.storage.repository.*;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@JdbcTest(properties = {
+        "filmorate.likes.write-behind.enabled=true",
+        "filmorate.likes.write-behind.flush-interval=PT1H"})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmRepository.class, FilmRowMapper.class,
+        GenreRepository.class, GenreRowMapper.class,
+        MpaRepository.class, MpaRowMapper.class,
+        LikeRepository.class, FilmLeaderboard.class, WriteBehindLikeStorage.class,
+        UserRepository.class, FriendGraph.class})
+public class WriteBehindLikeStorageTest {
+    private final WriteBehindLikeStorage likeStorage;
+    private final FilmRepository filmRepository;
+    private final UserRepository userRepository;
+    private final MpaRepository mpaRepository;
+    private final FilmLeaderboard leaderboard;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Film film;
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        film = new Film();
+        film.setName("Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.parse("2000-01-01"));
+        film.setDuration(100);
+        film.setMpa(mpaRepository.findById(1));
+        film.setGenres(Set.of());
+        film = filmRepository.create(film);
+
+        user = new User();
+        user.setEmail("user@example.com");
+        user.setLogin("user");
+        user.setName("user");
+        user.setBirthday(LocalDate.parse("1990-01-01"));
+        user = userRepository.create(user);
+    }
+
+    @Test
+    void testLikeIsRankedBeforeFlushAndWrittenOnFlush() {
+        likeStorage.addLike(user.getId(), film.getId());
+        likeStorage.addLike(user.getId(), film.getId());
+
+        assertEquals(1, leaderboard.likes(film.getId()));
+        assertEquals(0, countLikes());
+
+        likeStorage.flush();
+        assertEquals(1, countLikes());
+
+        likeStorage.addLike(user.getId(), film.getId());
+        assertEquals(1, leaderboard.likes(film.getId()));
+    }
+
+    @Test
+    void testLastEventWinsWithinBatch() {
+        likeStorage.addLike(user.getId(), film.getId());
+        likeStorage.removeLike(user.getId(), film.getId());
+        likeStorage.addLike(user.getId(), film.getId());
+        likeStorage.removeLike(user.getId(), film.getId());
+
+        assertEquals(0, leaderboard.likes(film.getId()));
+        likeStorage.flush();
+        assertEquals(0, countLikes());
+    }
+
+    @Test
+    void testFailedFlushKeepsLikesForRetry() {
+        likeStorage.addLike(user.getId(), film.getId());
+        // Без пользователя запись лайка нарушает внешний ключ
+        jdbcTemplate.update("DELETE FROM `user` WHERE id = ?;", user.getId());
+
+        assertThrows(RuntimeException.class, likeStorage::flush);
+        assertEquals(1, leaderboard.likes(film.getId()));
+        assertFalse(likeStorage.addLike(user.getId(), film.getId()));
+
+        jdbcTemplate.update("INSERT INTO `user` (id, email, login, name, birthdate) VALUES (?, ?, ?, ?, ?);",
+                user.getId(), user.getEmail(), user.getLogin(), user.getName(), user.getBirthday());
+        likeStorage.flush();
+
+        assertEquals(1, countLikes());
+        assertEquals(1, leaderboard.likes(film.getId()));
+    }
+
+    @Test
+    void testLikeOfUnknownFilmIsRejected() {
+        assertThrows(NotFoundException.class, () -> likeStorage.addLike(user.getId(), film.getId() + 1000));
+    }
+
+    private int countLikes() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM `like` WHERE user_id = ? AND film_id = ?;",
+                Integer.class, user.getId(), film.getId());
+    }
+}
@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilmLeaderboardTest {
+    private FilmLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new FilmLeaderboard();
+        leaderboard.describe(1, 2000, List.of(10L));
+        leaderboard.describe(2, 2001, List.of(10L, 20L));
+        leaderboard.rebuild(Map.of(1L, 3L, 2L, 5L, 3L, 1L));
+    }
+
+    @Test
+    void shouldRankByLikesOverallAndPerFilter() {
+        assertEquals(List.of(2L, 1L, 3L), leaderboard.top(10));
+        assertEquals(List.of(2L, 1L), leaderboard.top(10, 10L, null));
+        assertEquals(List.of(1L), leaderboard.top(10, 10L, 2000));
+        assertEquals(List.of(2L), leaderboard.top(10, null, 2001));
+        assertEquals(List.of(2L), leaderboard.top(1));
+    }
+
+    @Test
+    void shouldReplaceCountersOnRebuildAndKeepFilmAttributes() {
+        leaderboard.increment(4);
+        leaderboard.rebuild(Map.of(1L, 7L));
+
+        assertEquals(7, leaderboard.likes(1));
+        assertEquals(0, leaderboard.likes(2));
+        assertEquals(0, leaderboard.likes(4));
+        assertEquals(List.of(1L), leaderboard.top(10));
+        assertEquals(List.of(1L), leaderboard.top(10, 10L, null));
+        assertEquals(List.of(), leaderboard.top(10, 20L, null));
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FriendGraphTest {
+    private FriendGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        graph = new FriendGraph();
+        graph.rebuild(Map.of(1L, List.of(5L, 2L, 9L, 2L), 2L, List.of(9L, 1L, 5L)));
+    }
+
+    @Test
+    void shouldKeepFriendsSortedAndDistinct() {
+        assertArrayEquals(new long[]{2, 5, 9}, graph.friends(1));
+        assertTrue(graph.add(1, 7));
+        assertFalse(graph.add(1, 7));
+        assertArrayEquals(new long[]{2, 5, 7, 9}, graph.friends(1));
+        assertTrue(graph.remove(1, 2));
+        assertFalse(graph.remove(1, 2));
+        assertArrayEquals(new long[]{5, 7, 9}, graph.friends(1));
+        assertArrayEquals(new long[0], graph.friends(3));
+    }
+
+    @Test
+    void shouldIntersectFriendLists() {
+        assertArrayEquals(new long[]{5, 9}, graph.commonFriends(1, 2));
+        assertArrayEquals(new long[0], graph.commonFriends(1, 3));
+
+        graph.remove(2, 5);
+        assertArrayEquals(new long[]{9}, graph.commonFriends(1, 2));
+    }
+
+    @Test
+    void shouldNotExposeInternalArrays() {
+        graph.friends(1)[0] = 100;
+        assertTrue(graph.contains(1, 2));
+        assertFalse(graph.contains(1, 100));
+    }
+
+    @Test
+    void shouldRankFriendsOfFriendsByMutualFriends() {
+        // 1 -> {2, 5, 9}; 2 -> {1, 5, 9}; 5 -> {7}; 9 -> {7, 8}
+        graph.add(5, 7);
+        graph.add(9, 7);
+        graph.add(9, 8);
+
+        assertArrayEquals(new long[]{7, 8}, graph.suggestions(1, 10));
+        assertArrayEquals(new long[]{7}, graph.suggestions(1, 1));
+
+        graph.add(2, 8);
+        assertArrayEquals(new long[]{7, 8}, graph.suggestions(1, 10));
+        graph.add(5, 8);
+        assertArrayEquals(new long[]{8, 7}, graph.suggestions(1, 10));
+
+        graph.add(1, 8);
+        assertArrayEquals(new long[]{7}, graph.suggestions(1, 10));
+        graph.remove(9, 7);
+        graph.remove(5, 7);
+        assertArrayEquals(new long[0], graph.suggestions(1, 10));
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryFilmStorageTest {
+    private InMemoryFilmStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new InMemoryFilmStorage(new FilmLeaderboard(), event -> {
+        });
+    }
+
+    @Test
+    void shouldRejectDuplicatedFilmOnCreateAndUpdate() {
+        Film first = storage.create(film("first"));
+        Film second = storage.create(film("second"));
+        assertThrows(DuplicatedDataException.class, () -> storage.create(film("first")));
+
+        Film changed = film("first");
+        changed.setId(second.getId());
+        assertThrows(DuplicatedDataException.class, () -> storage.update(changed));
+        assertEquals("second", storage.findById(second.getId()).getName());
+
+        Film renamed = film("third");
+        renamed.setId(first.getId());
+        storage.update(renamed);
+        assertDoesNotThrow(() -> storage.create(film("first")));
+    }
+
+    @Test
+    void shouldKeepDuplicateCheckWhenReturnedFilmIsMutated() {
+        Film first = storage.create(film("first"));
+        // Изменение отданного объекта не должно ломать индекс дубликатов
+        storage.findById(first.getId()).setName("mutated");
+
+        assertThrows(DuplicatedDataException.class, () -> storage.create(film("first")));
+
+        Film renamed = film("renamed");
+        renamed.setId(first.getId());
+        storage.update(renamed);
+        assertDoesNotThrow(() -> storage.create(film("first")));
+        assertThrows(DuplicatedDataException.class, () -> storage.create(film("renamed")));
+    }
+
+    @Test
+    void shouldWriteBatchAllOrNothing() {
+        storage.create(film("existing"));
+
+        assertThrows(DuplicateKeyException.class,
+                () -> storage.createAll(List.of(film("first"), film("existing"), film("last"))));
+        assertEquals(1, storage.findAll().size());
+        assertDoesNotThrow(() -> storage.create(film("first")));
+
+        List<Film> created = storage.createAll(List.of(film("second"), film("third")));
+        assertEquals(2, created.size());
+        assertEquals(4, storage.findAll().size());
+    }
+
+    private Film film(String name) {
+        Mpa mpa = new Mpa();
+        mpa.setId(1);
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(name + " description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpa(mpa);
+        return film;
+    }
+}
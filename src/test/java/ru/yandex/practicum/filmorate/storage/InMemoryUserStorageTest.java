@@ -0,0 +1,110 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import ru.yandex.practicum.filmorate.exception.DuplicatedDataException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryUserStorageTest {
+    private InMemoryUserStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new InMemoryUserStorage(new FriendGraph());
+    }
+
+    @Test
+    void shouldAssignUniqueIdsUnderConcurrentCreates() {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 1000).parallel()
+                .forEach(i -> ids.add(storage.create(user("user" + i)).getId()));
+
+        assertEquals(1000, ids.size());
+        assertEquals(1000, storage.findAll().size());
+    }
+
+    @Test
+    void shouldRejectDuplicatedEmailOnCreateAndUpdate() {
+        User first = storage.create(user("first"));
+        User second = storage.create(user("second"));
+        assertThrows(DuplicatedDataException.class, () -> storage.create(user("first")));
+
+        User changed = user("first");
+        changed.setId(second.getId());
+        assertThrows(DuplicatedDataException.class, () -> storage.update(changed));
+
+        User renamed = user("third");
+        renamed.setId(first.getId());
+        storage.update(renamed);
+        assertDoesNotThrow(() -> storage.create(user("first")));
+    }
+
+    @Test
+    void shouldKeepEmailIndexConsistentUnderConcurrentSwaps() {
+        List<User> created = IntStream.range(0, 8)
+                .mapToObj(i -> storage.create(user("user" + i)))
+                .toList();
+        // Пользователи наперегонки меняют email на адреса соседей и обратно
+        IntStream.range(0, 20_000).parallel().forEach(i -> {
+            User changed = user("user" + (i * 7 + 3) % 12);
+            changed.setId(created.get(i % created.size()).getId());
+            try {
+                storage.update(changed);
+            } catch (DuplicatedDataException ignored) {
+            }
+        });
+
+        Set<String> taken = ConcurrentHashMap.newKeySet();
+        storage.findAll().forEach(u -> assertTrue(taken.add(u.getEmail()), "email taken twice: " + u.getEmail()));
+        for (int i = 0; i < 12; i++) {
+            String login = "user" + i;
+            if (taken.contains(login + "@example.com")) {
+                assertThrows(DuplicatedDataException.class, () -> storage.create(user(login)));
+            } else {
+                assertDoesNotThrow(() -> storage.create(user(login)));
+            }
+        }
+    }
+
+    @Test
+    void shouldReturnPagesAndCommonFriends() {
+        User a = storage.create(user("a"));
+        User b = storage.create(user("b"));
+        User c = storage.create(user("c"));
+        storage.addFriend(a.getId(), c.getId());
+        storage.addFriend(b.getId(), c.getId());
+        storage.addFriend(a.getId(), b.getId());
+
+        assertEquals(List.of(b, c), storage.findPage(a.getId(), 10));
+        assertEquals(List.of(c), storage.getCommonFriends(a.getId(), b.getId()));
+        assertThrows(NotFoundException.class, () -> storage.addFriend(a.getId(), 100L));
+    }
+
+    @Test
+    void shouldWriteBatchAllOrNothing() {
+        storage.create(user("existing"));
+
+        assertThrows(DuplicateKeyException.class,
+                () -> storage.createAll(List.of(user("first"), user("existing"))));
+        assertEquals(1, storage.findAll().size());
+        assertDoesNotThrow(() -> storage.create(user("first")));
+    }
+
+    private User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
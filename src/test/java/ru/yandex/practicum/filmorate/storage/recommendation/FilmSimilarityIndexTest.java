@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.storage.recommendation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.event.LikeChangedEvent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilmSimilarityIndexTest {
+    private FilmSimilarityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FilmSimilarityIndex();
+        // Фильмы 10 и 20 нравятся одним и тем же людям, 30 - только одному из них
+        index.rebuild(() -> Map.of(
+                1L, List.of(10L, 20L),
+                2L, List.of(10L, 20L, 30L),
+                3L, List.of(10L),
+                4L, List.of(40L)));
+    }
+
+    @Test
+    void shouldRecommendFilmsLikedTogetherWithUsersLikes() {
+        assertArrayEquals(new long[]{20, 30}, index.recommend(3, 10));
+        assertArrayEquals(new long[]{20}, index.recommend(3, 1));
+        assertArrayEquals(new long[]{30}, index.recommend(1, 10));
+        assertArrayEquals(new long[0], index.recommend(4, 10));
+        assertArrayEquals(new long[0], index.recommend(100, 10));
+    }
+
+    @Test
+    void shouldApplyLikesIncrementally() {
+        index.onLikeChanged(new LikeChangedEvent(4, 10, true));
+        assertEquals(2, index.recomputeDirty());
+        assertArrayEquals(new long[]{20, 30}, index.recommend(4, 10));
+        assertArrayEquals(new long[]{20, 30, 40}, index.recommend(3, 10));
+
+        index.onLikeChanged(new LikeChangedEvent(2, 30, false));
+        index.onLikeChanged(new LikeChangedEvent(2, 30, false));
+        index.recomputeDirty();
+        assertArrayEquals(new long[]{20, 40}, index.recommend(3, 10));
+        assertEquals(0, index.recomputeDirty());
+    }
+
+    @Test
+    void shouldReplayLikesMadeDuringRebuild() {
+        index.rebuild(() -> {
+            // Лайк пришёл после того, как лайки уже прочитаны из базы
+            index.onLikeChanged(new LikeChangedEvent(4, 10, true));
+            assertArrayEquals(new long[]{20, 30}, index.recommend(3, 10));
+            return Map.of(
+                    1L, List.of(10L, 20L),
+                    2L, List.of(10L, 20L, 30L),
+                    3L, List.of(10L),
+                    4L, List.of(40L));
+        });
+        assertEquals(2, index.recomputeDirty());
+        assertArrayEquals(new long[]{20, 30}, index.recommend(4, 10));
+        assertArrayEquals(new long[]{20, 30, 40}, index.recommend(3, 10));
+    }
+
+    @Test
+    void shouldSampleLikersOfPopularFilms() {
+        Map<Long, List<Long>> likes = new HashMap<>();
+        // Фильм 1 лайкнули втрое больше людей, чем попадает в выборку, и все они лайкнули фильм 2
+        for (long userId = 1000; userId < 1000 + 3L * FilmSimilarityIndex.MAX_LIKERS_SAMPLED; userId++) {
+            likes.put(userId, userId % 2 == 0 ? List.of(1L, 2L, 3L) : List.of(1L, 2L));
+        }
+        likes.put(1L, List.of(1L));
+        likes.put(2L, LongStream.range(100, 300).boxed().toList());
+        likes.put(3L, List.of(100L));
+        index.rebuild(() -> likes);
+
+        assertArrayEquals(new long[]{2, 3}, index.recommend(1, 10));
+        assertArrayEquals(LongStream.rangeClosed(101, 120).toArray(), index.recommend(3, 100));
+    }
+}
@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.storage.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilmSearchIndexTest {
+    private static final Set<FilmSearchIndex.Field> ALL = EnumSet.allOf(FilmSearchIndex.Field.class);
+
+    private FilmLeaderboard leaderboard;
+    private FilmSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new FilmLeaderboard();
+        index = new FilmSearchIndex(new InMemoryFilmStorage(leaderboard, event -> {
+        }), leaderboard);
+        index.index(1, "The Matrix", "A hacker learns the truth about reality");
+        index.index(2, "Hackers", "Teenagers uncover a plot");
+        index.index(3, "Форрест Гамп", "История о жизни Форреста, который бежал");
+        index.index(4, "Reality Bites", "Graduates face the real world");
+    }
+
+    @Test
+    void shouldRankTitleMatchesAboveDescriptionMatches() {
+        assertEquals(List.of(2L, 1L), index.search("hackers", ALL, 10));
+        assertEquals(List.of(1L), index.search("hackers", Set.of(FilmSearchIndex.Field.DESCRIPTION), 10));
+        assertEquals(List.of(2L), index.search("hackers", Set.of(FilmSearchIndex.Field.TITLE), 10));
+    }
+
+    @Test
+    void shouldMatchPrefixesAndTypos() {
+        assertEquals(List.of(1L), index.search("matr", ALL, 10));
+        assertEquals(List.of(1L), index.search("matrx", ALL, 10));
+        assertEquals(List.of(3L), index.search("форест", ALL, 10));
+        assertEquals(List.of(), index.search("xyz", ALL, 10));
+    }
+
+    @Test
+    void shouldBoostLikedFilmsAndFollowUpdates() {
+        index.index(5, "Reality Check", "Graduates face the real world");
+        assertEquals(List.of(4L, 5L, 1L), index.search("reality", ALL, 10));
+
+        leaderboard.increment(5);
+        assertEquals(List.of(5L, 4L, 1L), index.search("reality", ALL, 10));
+
+        index.index(1, "The Matrix", "Nothing is what it seems");
+        assertEquals(List.of(5L, 4L), index.search("reality", ALL, 10));
+        assertEquals(List.of(), index.search("truth", ALL, 10));
+    }
+
+    @Test
+    void shouldKeepFilmsIndexedWhileTermEmptiesConcurrently() throws Exception {
+        int rounds = 500;
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        // В каждом раунде фильм 1 уходит из единственного списка термина, а другой фильм в него добавляется
+        CompletableFuture<Void> leaving = CompletableFuture.runAsync(() -> {
+            for (int round = 0; round < rounds; round++) {
+                index.index(1, "w" + round, null);
+                await(barrier);
+                index.index(1, "elsewhere", null);
+                await(barrier);
+            }
+        });
+        CompletableFuture<Void> joining = CompletableFuture.runAsync(() -> {
+            for (int round = 0; round < rounds; round++) {
+                await(barrier);
+                index.index(1000 + round, "w" + round, null);
+                await(barrier);
+            }
+        });
+        CompletableFuture.allOf(leaving, joining).get(30, TimeUnit.SECONDS);
+
+        for (int round = 0; round < rounds; round++) {
+            assertEquals(List.of(1000L + round), index.search("w" + round, Set.of(FilmSearchIndex.Field.TITLE), 1));
+        }
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void shouldLimitTyposByWordLength() {
+        assertEquals(2, FilmSearchIndex.distance("matrix", "matirx", 2));
+        assertEquals(2, FilmSearchIndex.distance("matrix", "matirx", 1));
+        assertEquals(1, FilmSearchIndex.distance("hacker", "hackers", 1));
+    }
+}